@@ -0,0 +1,107 @@
+package userRest;
+
+import com.ayush.end_to_end.dto.ApiResponse;
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserStats;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux counterpart of {@link UserRest}, active when the application runs as a reactive
+ * web application. List endpoints additionally stream every row as NDJSON when the client
+ * accepts {@code application/x-ndjson}.
+ */
+@RestController
+@RequestMapping("/api")
+public interface ReactiveUserRest {
+    
+    String SMILE = "application/x-jackson-smile";
+    
+    @GetMapping("/test")
+    Mono<ResponseEntity<String>> test();
+    
+    @PostMapping("/users")
+    Mono<ResponseEntity<ApiResponse<UserDto>>> createUser(@RequestBody UserDto userDto,
+                                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey);
+    
+    @PostMapping(value = "/users/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<ApiResponse<BulkCreateResult>>> createUsers(@RequestBody List<UserDto> userDtos);
+    
+    @PostMapping(value = "/users/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    Mono<ResponseEntity<ApiResponse<BulkCreateResult>>> createUsersFromStream(@RequestBody Flux<UserDto> userDtos);
+    
+    @PatchMapping("/users/bulk/activate")
+    Mono<ResponseEntity<ApiResponse<BulkUpdateResult>>> activateUsers(@RequestBody BulkUserActionRequest request);
+    
+    @PatchMapping("/users/bulk/deactivate")
+    Mono<ResponseEntity<ApiResponse<BulkUpdateResult>>> deactivateUsers(@RequestBody BulkUserActionRequest request);
+    
+    @PostMapping("/users/bulk/delete")
+    Mono<ResponseEntity<ApiResponse<BulkUpdateResult>>> deleteUsers(@RequestBody BulkUserActionRequest request);
+    
+    @GetMapping("/users/stats")
+    Mono<ResponseEntity<ApiResponse<UserStats>>> getUserStats();
+    
+    @GetMapping("/users/batch")
+    Mono<ResponseEntity<ApiResponse<UserBatchResult>>> getUsersBatch(@RequestParam(required = false) List<Long> ids,
+                                                                     @RequestParam(required = false) List<String> emails);
+    
+    @GetMapping("/users/{id}")
+    Mono<ResponseEntity<ApiResponse<UserDto>>> getUserById(@PathVariable Long id, ServerWebExchange exchange);
+    
+    @GetMapping("/users/email/{email}")
+    Mono<ResponseEntity<ApiResponse<UserDto>>> getUserByEmail(@PathVariable String email, ServerWebExchange exchange);
+    
+    @GetMapping(value = "/users", produces = {MediaType.APPLICATION_JSON_VALUE, SMILE})
+    Mono<ResponseEntity<ApiResponse<CursorPage<UserDto>>>> getAllUsers(@RequestParam(required = false) String after,
+                                                                       @RequestParam(required = false) Integer limit,
+                                                                       @RequestParam(defaultValue = "false") boolean unpaged);
+    
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<UserDto> streamAllUsers();
+    
+    @GetMapping(value = "/users/active", produces = {MediaType.APPLICATION_JSON_VALUE, SMILE})
+    Mono<ResponseEntity<ApiResponse<CursorPage<UserDto>>>> getActiveUsers(@RequestParam(required = false) String after,
+                                                                          @RequestParam(required = false) Integer limit,
+                                                                          @RequestParam(defaultValue = "false") boolean unpaged);
+    
+    @GetMapping(value = "/users/active", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<UserDto> streamActiveUsers();
+    
+    @GetMapping(value = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<UserDto> exportUsers();
+    
+    @GetMapping("/users/search")
+    Mono<ResponseEntity<ApiResponse<List<UserDto>>>> searchUsersByName(@RequestParam String name,
+                                                                       @RequestParam(required = false) Integer limit);
+    
+    @GetMapping("/users/changes")
+    Mono<ResponseEntity<ApiResponse<CursorPage<UserChange>>>> getChanges(@RequestParam(required = false) String after,
+                                                                         @RequestParam(required = false) Integer limit);
+    
+    @PutMapping("/users/{id}")
+    Mono<ResponseEntity<ApiResponse<UserDto>>> updateUser(@PathVariable Long id, @RequestBody UserDto userDto,
+                                                          @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                          @RequestHeader(value = "Accept", required = false) String accept);
+    
+    @DeleteMapping("/users/{id}")
+    Mono<ResponseEntity<ApiResponse<String>>> deleteUser(@PathVariable Long id);
+    
+    @PatchMapping("/users/{id}/deactivate")
+    Mono<ResponseEntity<ApiResponse<String>>> deactivateUser(@PathVariable Long id);
+    
+    @PatchMapping("/users/{id}/activate")
+    Mono<ResponseEntity<ApiResponse<String>>> activateUser(@PathVariable Long id);
+}
@@ -1,9 +1,20 @@
 package userRest;
 
 import com.ayush.end_to_end.dto.ApiResponse;
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
 import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserStats;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,25 +26,72 @@ public interface UserRest {
     ResponseEntity<String> test();
     
     @PostMapping("/users")
-    ResponseEntity<ApiResponse<UserDto>> createUser(@RequestBody UserDto userDto);
+    ResponseEntity<ApiResponse<UserDto>> createUser(@RequestBody UserDto userDto,
+                                                    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey);
+    
+    @PostMapping(value = "/users/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<ApiResponse<BulkCreateResult>> createUsers(@RequestBody List<UserDto> userDtos);
+    
+    @PostMapping(value = "/users/bulk", consumes = "application/x-ndjson")
+    ResponseEntity<ApiResponse<BulkCreateResult>> createUsersFromStream(HttpServletRequest request);
+    
+    @PatchMapping("/users/bulk/activate")
+    ResponseEntity<ApiResponse<BulkUpdateResult>> activateUsers(@RequestBody BulkUserActionRequest request);
+    
+    @PatchMapping("/users/bulk/deactivate")
+    ResponseEntity<ApiResponse<BulkUpdateResult>> deactivateUsers(@RequestBody BulkUserActionRequest request);
+    
+    @PostMapping("/users/bulk/delete")
+    ResponseEntity<ApiResponse<BulkUpdateResult>> deleteUsers(@RequestBody BulkUserActionRequest request);
+    
+    @GetMapping("/users/stats")
+    ResponseEntity<ApiResponse<UserStats>> getUserStats();
+    
+    @GetMapping("/users/batch")
+    ResponseEntity<ApiResponse<UserBatchResult>> getUsersBatch(@RequestParam(required = false) List<Long> ids,
+                                                               @RequestParam(required = false) List<String> emails,
+                                                               @RequestParam(required = false) String fields);
     
     @GetMapping("/users/{id}")
-    ResponseEntity<ApiResponse<UserDto>> getUserById(@PathVariable Long id);
+    ResponseEntity<ApiResponse<UserDto>> getUserById(@PathVariable Long id,
+                                                     @RequestParam(required = false) String fields,
+                                                     WebRequest request);
     
     @GetMapping("/users/email/{email}")
-    ResponseEntity<ApiResponse<UserDto>> getUserByEmail(@PathVariable String email);
+    ResponseEntity<ApiResponse<UserDto>> getUserByEmail(@PathVariable String email,
+                                                        @RequestParam(required = false) String fields,
+                                                        WebRequest request);
     
     @GetMapping("/users")
-    ResponseEntity<ApiResponse<List<UserDto>>> getAllUsers();
+    ResponseEntity<ApiResponse<CursorPage<UserDto>>> getAllUsers(@RequestParam(required = false) String after,
+                                                                 @RequestParam(required = false) Integer limit,
+                                                                 @RequestParam(defaultValue = "false") boolean unpaged,
+                                                                 @RequestParam(required = false) String fields);
     
     @GetMapping("/users/active")
-    ResponseEntity<ApiResponse<List<UserDto>>> getActiveUsers();
+    ResponseEntity<ApiResponse<CursorPage<UserDto>>> getActiveUsers(@RequestParam(required = false) String after,
+                                                                    @RequestParam(required = false) Integer limit,
+                                                                    @RequestParam(defaultValue = "false") boolean unpaged,
+                                                                    @RequestParam(required = false) String fields);
+    
+    @GetMapping(value = "/users/export", produces = "application/x-ndjson")
+    ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "false") boolean gzip,
+                                                      @RequestParam(required = false) String fields);
     
     @GetMapping("/users/search")
-    ResponseEntity<ApiResponse<List<UserDto>>> searchUsersByName(@RequestParam String name);
+    ResponseEntity<ApiResponse<List<UserDto>>> searchUsersByName(@RequestParam String name,
+                                                                 @RequestParam(required = false) Integer limit,
+                                                                 @RequestParam(required = false) String fields);
+    
+    @GetMapping("/users/changes")
+    ResponseEntity<ApiResponse<CursorPage<UserChange>>> getChanges(@RequestParam(required = false) String after,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam(required = false) String fields);
     
     @PutMapping("/users/{id}")
-    ResponseEntity<ApiResponse<UserDto>> updateUser(@PathVariable Long id, @RequestBody UserDto userDto);
+    ResponseEntity<ApiResponse<UserDto>> updateUser(@PathVariable Long id, @RequestBody UserDto userDto,
+                                                    @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                    @RequestHeader(value = "Accept", required = false) String accept);
     
     @DeleteMapping("/users/{id}")
     ResponseEntity<ApiResponse<String>> deleteUser(@PathVariable Long id);
@@ -0,0 +1,79 @@
+package com.ayush.end_to_end.benchmark;
+
+import com.ayush.end_to_end.dto.ApiResponse;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+    
+    @Param({"1", "100", "10000"})
+    private int size;
+    
+    // "all" is the full representation, otherwise a fields= selection as sent by clients
+    @Param({"all", "id,email,isActive"})
+    private String fields;
+    
+    // Wire format picked by the Accept header
+    @Param({"json", "cbor", "smile"})
+    private String format;
+    
+    private ObjectWriter writer;
+    private ApiResponse<List<UserDto>> response;
+    
+    @Setup
+    public void setUp() {
+        List<UserDto> users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            users.add(BenchmarkSupport.userDto(id));
+        }
+        response = ApiResponse.success("Users retrieved successfully", users);
+        UserFields selection = "all".equals(fields) ? UserFields.ALL : UserFields.parse(fields);
+        writer = BenchmarkSupport.objectMapper(factory(format)).writer(selection.filterProvider());
+    }
+    
+    @Benchmark
+    public byte[] toBytes() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+    
+    // Excludes the final byte[] copy, closer to writing into the servlet output buffer
+    @Benchmark
+    public void toStream() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), response);
+    }
+    
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+}
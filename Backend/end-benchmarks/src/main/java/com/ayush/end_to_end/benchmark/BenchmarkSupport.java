@@ -0,0 +1,81 @@
+package com.ayush.end_to_end.benchmark;
+
+import com.ayush.end_to_end.EndToEndApplication;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.ayush.end_to_end.entity.User;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared fixtures: synthetic users and an application context wired to a private
+ * in-memory H2 database with SQL and application logging turned down.
+ */
+final class BenchmarkSupport {
+    
+    private BenchmarkSupport() {}
+    
+    static ConfigurableApplicationContext startApplication(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--users.pagination.allow-unpaged=true"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(EndToEndApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+    
+    // Configured like Spring Boot's auto-configured ObjectMapper
+    static ObjectMapper objectMapper() {
+        return objectMapper(new JsonFactory());
+    }
+    
+    // Same configuration over another encoding, e.g. CBORFactory or SmileFactory
+    static ObjectMapper objectMapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(UserFields.ALL.filterProvider())
+                .build();
+    }
+    
+    static User user(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new User(id, "First" + id, "Last" + id, "user" + id + "@example.com", "1234567890",
+                id + " Main Street, Springfield", now, now, true);
+    }
+    
+    static UserDto userDto(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new UserDto(id, "First" + id, "Last" + id, "user" + id + "@example.com", "1234567890",
+                id + " Main Street, Springfield", now, now, true);
+    }
+    
+    static UserDto newUserDto(String suffix) {
+        UserDto dto = new UserDto();
+        dto.setFirstName("Bench" + suffix);
+        dto.setLastName("Marker");
+        dto.setEmail("bench" + suffix + "@example.com");
+        dto.setPhoneNumber("1234567890");
+        dto.setAddress(suffix + " Benchmark Road");
+        return dto;
+    }
+}
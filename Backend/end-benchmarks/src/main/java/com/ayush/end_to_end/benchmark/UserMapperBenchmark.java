@@ -0,0 +1,55 @@
+package com.ayush.end_to_end.benchmark;
+
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.entity.User;
+import com.ayush.end_to_end.mapper.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+    
+    @Param({"1", "100", "10000"})
+    private int size;
+    
+    private final UserMapper userMapper = new UserMapper();
+    private List<User> users;
+    private User user;
+    
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            users.add(BenchmarkSupport.user(id));
+        }
+        user = users.get(0);
+    }
+    
+    @Benchmark
+    public UserDto toDto() {
+        return userMapper.toDto(user);
+    }
+    
+    @Benchmark
+    public List<UserDto> toDtoList() {
+        return userMapper.toDtoList(users);
+    }
+}
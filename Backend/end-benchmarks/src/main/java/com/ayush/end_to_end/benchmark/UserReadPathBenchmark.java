@@ -0,0 +1,76 @@
+package com.ayush.end_to_end.benchmark;
+
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.mapper.UserMapper;
+import com.ayush.end_to_end.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Managed entities + UserMapper versus the UserDto constructor projection for the same
+ * active-user listing; run with -prof gc to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserReadPathBenchmark {
+    
+    @Param({"100", "1000"})
+    private int users;
+    
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private TransactionTemplate readOnlyTransaction;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("read-path-benchmark-" + users);
+        userRepository = context.getBean(UserRepository.class);
+        userMapper = context.getBean(UserMapper.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        List<UserDto> seed = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            seed.add(BenchmarkSupport.newUserDto("read" + i));
+        }
+        context.getBean(UserService.class).createUsers(seed.iterator());
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<UserDto> entityAndMapper() {
+        return readOnlyTransaction.execute(status -> userMapper.toDtoList(userRepository.findByIsActiveTrue()));
+    }
+    
+    @Benchmark
+    public List<UserDto> dtoProjection() {
+        return readOnlyTransaction.execute(status -> userRepository.findActiveUserDtos());
+    }
+}
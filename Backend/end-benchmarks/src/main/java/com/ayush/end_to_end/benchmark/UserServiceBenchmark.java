@@ -0,0 +1,102 @@
+package com.ayush.end_to_end.benchmark;
+
+import com.ayush.end_to_end.cache.UserLookupCache;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UserServiceImpl hot paths against an in-memory H2 database seeded with {@code users} rows.
+ * The "uncached" variants clear the lookup cache first so every call reaches the database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+    
+    @Param({"10000"})
+    private int users;
+    
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private CacheManager cacheManager;
+    private final AtomicLong createSequence = new AtomicLong();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("service-benchmark");
+        userService = context.getBean(UserService.class);
+        cacheManager = context.getBean(CacheManager.class);
+        List<UserDto> seed = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            seed.add(BenchmarkSupport.newUserDto("seed" + i));
+        }
+        userService.createUsers(seed.iterator());
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public UserDto getUserByIdCached() {
+        return userService.getUserById(randomId());
+    }
+    
+    @Benchmark
+    public UserDto getUserByIdUncached() {
+        cacheManager.getCache(UserLookupCache.BY_ID).clear();
+        return userService.getUserById(randomId());
+    }
+    
+    @Benchmark
+    public UserDto getUserByEmailUncached() {
+        cacheManager.getCache(UserLookupCache.BY_EMAIL).clear();
+        return userService.getUserByEmail("benchseed" + ThreadLocalRandom.current().nextInt(users) + "@example.com");
+    }
+    
+    @Benchmark
+    public CursorPage<UserDto> getActiveUsersPage() {
+        return userService.getActiveUsersPage(null, 100);
+    }
+    
+    @Benchmark
+    public List<UserDto> searchUsersByName() {
+        return userService.searchUsersByName("seed12", 50);
+    }
+    
+    @Benchmark
+    public UserDto createUser() {
+        return userService.createUser(BenchmarkSupport.newUserDto("new" + createSequence.incrementAndGet()));
+    }
+    
+    // Seeded ids start at 1 and are contiguous within the pooled sequence blocks
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ayush.end_to_end.loadtest;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adds a fixed delay to every statement execution, standing in for the network round trip
+ * and query time of a remote database so that an in-process H2 behaves like a slow backend.
+ * The delay is spent while holding the connection, exactly as a real round trip would be.
+ */
+public class LatencyInjectingDataSource extends DelegatingDataSource {
+    
+    private final long latencyNanos;
+    
+    public LatencyInjectingDataSource(DataSource targetDataSource, Duration latency) {
+        super(targetDataSource);
+        this.latencyNanos = latency.toNanos();
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password));
+    }
+    
+    private <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        LockSupport.parkNanos(latencyNanos);
+                    }
+                    Object result = invoke(method, target, args);
+                    // Statements created by the connection get the same treatment
+                    if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        @SuppressWarnings("unchecked")
+                        Class<Statement> statementType = (Class<Statement>) method.getReturnType();
+                        return proxy(statementType, (Statement) result);
+                    }
+                    return result;
+                }));
+    }
+    
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.ayush.end_to_end.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weighted mix of {@link Operation}s against a running instance.
+ *
+ * Closed loop: {@code concurrency} workers send back-to-back requests, latency is measured
+ * from send. Open loop ({@code ratePerSecond > 0}): requests are scheduled at a fixed rate and
+ * latency is measured from the scheduled start, so time spent waiting for a free worker
+ * counts against the server (no coordinated omission).
+ */
+public class LoadDriver {
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+    
+    public record Settings(String baseUrl, long rows, Map<Operation, Integer> mix, int concurrency,
+                           double ratePerSecond, Duration warmup, Duration duration) {
+    }
+    
+    private final Settings settings;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final Stats total = new Stats();
+    private final Operation[] weightedOperations;
+    
+    public LoadDriver(Settings settings) {
+        this.settings = settings;
+        List<Operation> weighted = new ArrayList<>();
+        settings.mix().forEach((operation, weight) -> {
+            stats.put(operation, new Stats());
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+        this.weightedOperations = weighted.toArray(Operation[]::new);
+    }
+    
+    public void run() throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + settings.warmup().toNanos();
+        long endNanos = measureFromNanos + settings.duration().toNanos();
+        long intervalNanos = settings.ratePerSecond() > 0 ? (long) (1_000_000_000L / settings.ratePerSecond()) : 0;
+        AtomicLong scheduled = new AtomicLong();
+        
+        List<Thread> workers = new ArrayList<>(settings.concurrency());
+        for (int i = 0; i < settings.concurrency(); i++) {
+            SplittableRandom random = new SplittableRandom(1_000 + i);
+            Thread worker = new Thread(() -> {
+                while (true) {
+                    long intendedNanos;
+                    if (intervalNanos > 0) {
+                        intendedNanos = startNanos + scheduled.getAndIncrement() * intervalNanos;
+                        if (intendedNanos >= endNanos) {
+                            return;
+                        }
+                        long waitNanos = intendedNanos - System.nanoTime();
+                        if (waitNanos > 0) {
+                            LockSupport.parkNanos(waitNanos);
+                        }
+                    } else {
+                        intendedNanos = System.nanoTime();
+                        if (intendedNanos >= endNanos) {
+                            return;
+                        }
+                    }
+                    execute(weightedOperations[random.nextInt(weightedOperations.length)], random,
+                            intendedNanos, intendedNanos >= measureFromNanos);
+                }
+            }, "load-driver-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+    
+    private void execute(Operation operation, SplittableRandom random, long intendedNanos, boolean measured) {
+        int status;
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    operation.request(settings.baseUrl(), settings.rows(), random), HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+        } catch (Exception ex) {
+            status = -1;
+        }
+        if (!measured) {
+            return;
+        }
+        long latencyMicros = Math.min((System.nanoTime() - intendedNanos) / 1_000, MAX_LATENCY_MICROS);
+        stats.get(operation).record(latencyMicros, status);
+        total.record(latencyMicros, status);
+    }
+    
+    public void printReport(PrintStream out) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        out.printf("%n%-12s %10s %10s %8s %8s %10s %10s %10s %10s%n",
+                "operation", "requests", "req/s", "404", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((operation, operationStats) -> operationStats.print(out, operation.name(), seconds));
+        total.print(out, "TOTAL", seconds);
+    }
+    
+    private static final class Stats {
+        
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder notFound = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        
+        void record(long latencyMicros, int status) {
+            latency.recordValue(latencyMicros);
+            if (status == 404) {
+                notFound.increment();
+            } else if (status < 200 || (status >= 300 && status != 409)) {
+                // 409 is an expected outcome of the mix (e.g. update racing another create)
+                errors.increment();
+            }
+        }
+        
+        void print(PrintStream out, String name, double seconds) {
+            long count = latency.getTotalCount();
+            out.printf("%-12s %10d %10.1f %8d %8d %10.2f %10.2f %10.2f %10.2f%n", name, count, count / seconds,
+                    notFound.sum(), errors.sum(),
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+        }
+        
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
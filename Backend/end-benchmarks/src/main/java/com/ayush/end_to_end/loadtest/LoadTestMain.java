@@ -0,0 +1,134 @@
+package com.ayush.end_to_end.loadtest;
+
+import com.ayush.end_to_end.EndToEndApplication;
+import org.h2.jdbcx.JdbcDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test: seeds a file-backed H2 database (reused across runs with the same
+ * row count), starts the application on a random port and drives it with {@link LoadDriver}.
+ * Configured through system properties; see the loadtest profile in pom.xml.
+ */
+public class LoadTestMain {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoadTestMain.class);
+    
+    public static void main(String[] args) throws Exception {
+        long rows = Long.getLong("loadtest.rows", 10_000);
+        Path databaseDir = Path.of(System.getProperty("loadtest.dir", "target/loadtest-db"));
+        String url = "jdbc:h2:file:" + databaseDir.resolve("users-" + rows).toAbsolutePath();
+        
+        seedIfNeeded(url, rows, Boolean.getBoolean("loadtest.reseed"));
+        
+        boolean virtualThreads = Boolean.getBoolean("loadtest.virtualThreads");
+        Duration dbLatency = Duration.ofMillis(Long.getLong("loadtest.dbLatencyMs", 0));
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            log.warn("Virtual threads need Java 21+, running on {} - this run uses platform threads", Runtime.version());
+        }
+        List<String> serverArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--users.search.index.rebuild-interval=1h"));
+        if (virtualThreads) {
+            serverArgs.add("--spring.profiles.active=virtual-threads");
+            serverArgs.add("--app.db.concurrency-limit.max-concurrent=" + Integer.getInteger("loadtest.pool", 20));
+        }
+        
+        try (ConfigurableApplicationContext context = application(url, "update", WebApplicationType.SERVLET, dbLatency,
+                serverArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver.Settings settings = new LoadDriver.Settings(
+                    "http://localhost:" + port + "/api",
+                    rows,
+                    parseMix(System.getProperty("loadtest.mix", "BY_ID:40,BY_EMAIL:20,SEARCH:15,CREATE:10,UPDATE:10,DEACTIVATE:3,ACTIVATE:2")),
+                    Integer.getInteger("loadtest.concurrency", 32),
+                    Double.parseDouble(System.getProperty("loadtest.rate", "0")),
+                    Duration.parse("PT" + System.getProperty("loadtest.warmup", "10s")),
+                    Duration.parse("PT" + System.getProperty("loadtest.duration", "60s")));
+            log.warn("Driving {} with {} rows, concurrency {}, rate {} ({}), warmup {}, duration {}, {} threads, db latency {}",
+                    settings.baseUrl(), rows, settings.concurrency(), settings.ratePerSecond(),
+                    settings.ratePerSecond() > 0 ? "open loop" : "closed loop", settings.warmup(), settings.duration(),
+                    virtualThreads ? "virtual" : "platform", dbLatency);
+            LoadDriver driver = new LoadDriver(settings);
+            driver.run();
+            driver.printReport(System.out);
+            System.out.printf("%nthreads: %s, peak platform threads: %d%n", virtualThreads ? "virtual" : "platform",
+                    ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        }
+    }
+    
+    private static void seedIfNeeded(String url, long rows, boolean forceReseed) throws Exception {
+        if (!forceReseed) {
+            JdbcDataSource existingDatabase = new JdbcDataSource();
+            existingDatabase.setURL(url);
+            existingDatabase.setUser("sa");
+            try {
+                long existing = new SyntheticUserGenerator(existingDatabase).countUsers();
+                if (existing >= rows) {
+                    log.warn("Reusing seeded database with {} users", existing);
+                    return;
+                }
+            } catch (SQLException ex) {
+                log.warn("No seeded database found at {}", url);
+            }
+        }
+        // Let Hibernate create a fresh schema, then bulk load it over plain JDBC
+        try (ConfigurableApplicationContext context = application(url, "create", WebApplicationType.NONE, Duration.ZERO)) {
+            new SyntheticUserGenerator(context.getBean(DataSource.class)).generate(rows);
+        }
+    }
+    
+    private static ConfigurableApplicationContext application(String url, String ddlAuto, WebApplicationType type,
+                                                              Duration dbLatency, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=" + Integer.getInteger("loadtest.pool", 20),
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        args.addAll(List.of(extraArgs));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(EndToEndApplication.class).web(type);
+        if (!dbLatency.isZero()) {
+            builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                            ? new LatencyInjectingDataSource(dataSource, dbLatency)
+                            : bean;
+                }
+            }));
+        }
+        return builder.run(args.toArray(String[]::new));
+    }
+    
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
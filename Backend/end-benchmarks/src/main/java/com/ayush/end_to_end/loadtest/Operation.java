@@ -0,0 +1,84 @@
+package com.ayush.end_to_end.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The request types the load driver can replay against the UserRest endpoints.
+ */
+public enum Operation {
+    
+    BY_ID {
+        @Override
+        HttpRequest request(String baseUrl, long rows, SplittableRandom random) {
+            return get(baseUrl + "/users/" + randomId(rows, random));
+        }
+    },
+    BY_EMAIL {
+        @Override
+        HttpRequest request(String baseUrl, long rows, SplittableRandom random) {
+            return get(baseUrl + "/users/email/" + SyntheticUserGenerator.emailFor(randomId(rows, random)));
+        }
+    },
+    SEARCH {
+        @Override
+        HttpRequest request(String baseUrl, long rows, SplittableRandom random) {
+            String[] names = random.nextBoolean() ? SyntheticUserGenerator.FIRST_NAMES : SyntheticUserGenerator.LAST_NAMES;
+            String name = names[random.nextInt(names.length)];
+            return get(baseUrl + "/users/search?limit=20&name=" + name.substring(0, Math.min(name.length(), 3 + random.nextInt(3))));
+        }
+    },
+    CREATE {
+        @Override
+        HttpRequest request(String baseUrl, long rows, SplittableRandom random) {
+            long n = CREATED.incrementAndGet();
+            String body = "{\"firstName\":\"Load\",\"lastName\":\"Tester\",\"email\":\"load." + RUN_ID + "." + n
+                    + "@example.com\",\"phoneNumber\":\"9876543210\",\"address\":\"1 Load Test Way\"}";
+            return json(baseUrl + "/users", "POST", body);
+        }
+    },
+    UPDATE {
+        @Override
+        HttpRequest request(String baseUrl, long rows, SplittableRandom random) {
+            long id = randomId(rows, random);
+            String body = "{\"firstName\":\"" + SyntheticUserGenerator.firstNameFor(id) + "\",\"lastName\":\""
+                    + SyntheticUserGenerator.lastNameFor(id) + "\",\"email\":\"" + SyntheticUserGenerator.emailFor(id)
+                    + "\",\"phoneNumber\":\"9876543210\",\"address\":\"" + random.nextInt(999) + " Updated St\"}";
+            return json(baseUrl + "/users/" + id, "PUT", body);
+        }
+    },
+    DEACTIVATE {
+        @Override
+        HttpRequest request(String baseUrl, long rows, SplittableRandom random) {
+            return json(baseUrl + "/users/" + randomId(rows, random) + "/deactivate", "PATCH", "");
+        }
+    },
+    ACTIVATE {
+        @Override
+        HttpRequest request(String baseUrl, long rows, SplittableRandom random) {
+            return json(baseUrl + "/users/" + randomId(rows, random) + "/activate", "PATCH", "");
+        }
+    };
+    
+    private static final long RUN_ID = System.currentTimeMillis();
+    private static final AtomicLong CREATED = new AtomicLong();
+    
+    abstract HttpRequest request(String baseUrl, long rows, SplittableRandom random);
+    
+    private static long randomId(long rows, SplittableRandom random) {
+        return 1 + random.nextLong(rows);
+    }
+    
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+    
+    private static HttpRequest json(String url, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.ayush.end_to_end.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds the users table with realistic, deterministic rows straight through JDBC batches,
+ * bypassing JPA so millions of rows load in minutes. Row {@code n} always gets id {@code n}
+ * and {@link #emailFor(long)}, which lets the load driver address existing users directly.
+ */
+public class SyntheticUserGenerator {
+    
+    static final String[] FIRST_NAMES = {
+        "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+        "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Aarav", "Priya", "Rohan", "Ananya", "Vikram", "Kavya", "Arjun", "Ishita", "Kabir", "Meera",
+        "Wei", "Mei", "Hiroshi", "Yuki", "Carlos", "Sofia", "Mateo", "Lucia", "Olga", "Dmitri",
+        "Fatima", "Omar", "Amara", "Kwame", "Ingrid", "Lars", "Chloe", "Louis", "Giulia", "Marco"
+    };
+    
+    static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Sharma", "Patel", "Gupta", "Singh", "Iyer", "Reddy", "Nair", "Dwivedi", "Mehta", "Kapoor",
+        "Wang", "Li", "Tanaka", "Suzuki", "Kim", "Park", "Nguyen", "Silva", "Santos", "Rossi",
+        "Ivanov", "Petrov", "Muller", "Schmidt", "Dubois", "Martin", "Hansen", "Larsen", "Okafor", "Mensah",
+        "Hassan", "Ali", "Cohen", "Levi", "OBrien", "Murphy", "Kowalski", "Novak", "Horvat", "Popescu"
+    };
+    
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Park Rd", "Lake View", "Hill Crest", "MG Road", "Station Rd"};
+    
+    private static final Logger log = LoggerFactory.getLogger(SyntheticUserGenerator.class);
+    
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COMMIT_EVERY = 20_000;
+    // Keep clear of the pooled generator's allocation block when moving the sequence
+    private static final int SEQUENCE_HEADROOM = 100;
+    
+    private final DataSource dataSource;
+    
+    public SyntheticUserGenerator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    public static String firstNameFor(long id) {
+        return FIRST_NAMES[(int) (mix(id) % FIRST_NAMES.length)];
+    }
+    
+    public static String lastNameFor(long id) {
+        return LAST_NAMES[(int) (mix(id * 31 + 7) % LAST_NAMES.length)];
+    }
+    
+    public static String emailFor(long id) {
+        return firstNameFor(id).toLowerCase() + "." + lastNameFor(id).toLowerCase() + "." + id + "@example.com";
+    }
+    
+    public long countUsers() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+    
+    /**
+     * Inserts users 1..rows into an empty users table and moves users_seq past them so
+     * users created through the API during the run do not collide with seeded ids.
+     */
+    public void generate(long rows) throws SQLException {
+        log.warn("Seeding {} synthetic users", rows);
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        String sql = "INSERT INTO users (id, first_name, last_name, email, phone_number, address, created_at, updated_at, is_active) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (long id = 1; id <= rows; id++) {
+                    Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+                    insert.setLong(1, id);
+                    insert.setString(2, firstNameFor(id));
+                    insert.setString(3, lastNameFor(id));
+                    insert.setString(4, emailFor(id));
+                    insert.setString(5, String.valueOf(9_000_000_000L + random.nextLong(999_999_999L)));
+                    insert.setString(6, (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+                    insert.setTimestamp(7, createdAt);
+                    insert.setTimestamp(8, createdAt);
+                    // Roughly one in ten users is deactivated
+                    insert.setBoolean(9, random.nextInt(10) != 0);
+                    insert.addBatch();
+                    if (id % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                    if (id % COMMIT_EVERY == 0) {
+                        connection.commit();
+                    }
+                    if (id % 1_000_000 == 0) {
+                        log.warn("Seeded {} users", id);
+                    }
+                }
+                insert.executeBatch();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER SEQUENCE users_seq RESTART WITH " + (rows + SEQUENCE_HEADROOM));
+            }
+            connection.commit();
+        }
+        log.warn("Seeded {} users in {} s", rows, (System.nanoTime() - start) / 1_000_000_000);
+    }
+    
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        return (z ^ (z >>> 31)) >>> 1;
+    }
+}
@@ -0,0 +1,169 @@
+package com.ayush.end_to_end.archive;
+
+import com.ayush.end_to_end.datasource.ReadRouting;
+import com.ayush.end_to_end.index.UserNameTrigramIndex;
+import com.ayush.end_to_end.repository.ArchivedUserRepository;
+import com.ayush.end_to_end.repository.UserRepository;
+import com.ayush.end_to_end.util.AfterCommit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves users that have been inactive for longer than {@code users.archive.inactive-age} from
+ * {@code users} into {@code users_archive}, {@code users.archive.chunk-size} rows per
+ * transaction. Moved rows no longer match the selection, so a run that is interrupted simply
+ * continues with the remaining rows next time.
+ *
+ * Archiving does not change what a user is: archived users are inactive, lookups 404 as before
+ * and the user counters are untouched. They are left out of listings, search, export and the
+ * change feed until activating them moves them back ({@link #restore}). Because that changes
+ * what those endpoints return, scheduled runs are opt-in ({@code users.archive.enabled}).
+ */
+@Component
+public class UserArchiver implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserArchiver.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ArchivedUserRepository archivedUserRepository;
+    
+    @Autowired
+    private UserNameTrigramIndex userNameTrigramIndex;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${users.archive.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${users.archive.inactive-age:365d}")
+    private Duration inactiveAge;
+    
+    @Value("${users.archive.chunk-size:1000}")
+    private int chunkSize;
+    
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder restored = new LongAdder();
+    
+    // Table sizes as of the last count, NaN until the first one
+    private volatile double liveRows = Double.NaN;
+    private volatile double archivedRows = Double.NaN;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void countOnStartup() {
+        countTables();
+    }
+    
+    @Scheduled(initialDelayString = "${users.archive.interval:1h}",
+               fixedDelayString = "${users.archive.interval:1h}")
+    public void archivePeriodically() {
+        if (enabled) {
+            archiveInactiveBefore(LocalDateTime.now().minus(inactiveAge));
+        }
+    }
+    
+    public long archiveInactiveBefore(LocalDateTime cutoff) {
+        log.info("Archiving users inactive since before {}", cutoff);
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long moved = 0;
+        long afterId = 0;
+        while (true) {
+            long after = afterId;
+            List<Long> ids = transactionTemplate.execute(status -> archiveChunk(cutoff, after));
+            if (ids.isEmpty()) {
+                break;
+            }
+            moved += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        countTables();
+        log.info("Archived {} users in {} ms", moved, (System.nanoTime() - start) / 1_000_000);
+        return moved;
+    }
+    
+    /**
+     * Moves archived users back into {@code users}, still inactive, in the caller's transaction.
+     * A user whose email was taken while it was archived stays in the archive and is not
+     * counted in the result.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int restore(Collection<Long> ids) {
+        int moved = archivedUserRepository.restoreByIdIn(ids);
+        if (moved > 0) {
+            archivedUserRepository.deleteRestoredByIdIn(ids);
+            AfterCommit.run(() -> restored.add(moved));
+            log.info("Restored {} archived users", moved);
+        }
+        return moved;
+    }
+    
+    public void countTables() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        // Counted right after a run: a lagging replica would still report the rows it moved
+        ReadRouting.onPrimary(() -> transactionTemplate.executeWithoutResult(status -> {
+            liveRows = userRepository.count();
+            archivedRows = archivedUserRepository.count();
+        }));
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.archive.moved", archived, LongAdder::sum)
+                .description("Users moved between users and users_archive")
+                .tag("direction", "archived")
+                .register(registry);
+        FunctionCounter.builder("users.archive.moved", restored, LongAdder::sum)
+                .tag("direction", "restored")
+                .register(registry);
+        Gauge.builder("users.table.rows", this, archiver -> archiver.liveRows)
+                .description("Rows per user table as of the last archive run")
+                .tag("table", "users")
+                .register(registry);
+        Gauge.builder("users.table.rows", this, archiver -> archiver.archivedRows)
+                .tag("table", "users_archive")
+                .register(registry);
+    }
+    
+    // The locked chunk is copied and deleted by id; the archive keeps the original timestamps
+    private List<Long> archiveChunk(LocalDateTime cutoff, long afterId) {
+        List<Long> ids = userRepository.findIdsToArchiveForUpdate(cutoff, afterId, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        archivedUserRepository.archiveByIdIn(ids, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        userRepository.deleteByIdIn(ids);
+        AfterCommit.run(() -> {
+            ids.forEach(userNameTrigramIndex::remove);
+            archived.add(ids.size());
+        });
+        log.info("Archive chunk committed - {} users moved", ids.size());
+        return ids;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ayush.end_to_end.cache;
+
+import com.ayush.end_to_end.exception.LookupTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key. The first caller runs the loader on its own
+ * thread; callers arriving while it runs wait for its result (or rethrow its exception)
+ * instead of loading again, for at most the timeout. Nothing is kept once a load completes,
+ * so results must be cached by the caller.
+ */
+public class SingleFlight<K, V> {
+    
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    
+    public SingleFlight(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+    
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return await(key, leader);
+        }
+        loads.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    /**
+     * Detaches the load in flight for the key, if any, so later callers start a new one
+     * rather than join a load that may have read data a write has just replaced.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+    
+    public long getLoads() {
+        return loads.sum();
+    }
+    
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+    
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+    
+    public int getInFlight() {
+        return inFlight.size();
+    }
+    
+    private V await(K key, CompletableFuture<V> leader) {
+        coalesced.increment();
+        try {
+            return leader.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            throw new LookupTimeoutException(String.valueOf(key), TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LookupTimeoutException(String.valueOf(key), TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+        } catch (ExecutionException ex) {
+            // Waiters see the leader's own exception, e.g. UserNotFoundException maps to 404 for all of them
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
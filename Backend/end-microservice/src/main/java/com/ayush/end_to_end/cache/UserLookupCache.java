@@ -0,0 +1,193 @@
+package com.ayush.end_to_end.cache;
+
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.util.AfterCommit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of active users keyed by id and by email. Entries are only ever
+ * written from committed data and are dropped after commit by every write path, so the
+ * TTL only bounds the usual cache-aside race between a slow reader and a writer.
+ *
+ * Misses are loaded single-flight: concurrent lookups of the same key, typically a burst of
+ * reads right after a popular user was updated and evicted, share one query and mapping.
+ * Callers that joined another's load are counted in {@code users.lookup.coalesced} and give
+ * up with a 503 after {@code users.lookup.coalesce-timeout}.
+ *
+ * Ids and emails that matched no active user are remembered for
+ * {@code users.lookup.negative-ttl}, so repeated lookups of unknown keys skip the database.
+ * Creates drop them explicitly, and every eviction also drops them, which covers
+ * activations and email changes.
+ */
+@Component
+public class UserLookupCache implements MeterBinder {
+    
+    public static final String BY_ID = "usersById";
+    public static final String BY_EMAIL = "usersByEmail";
+    public static final String MISSING_BY_ID = "usersMissingById";
+    public static final String MISSING_BY_EMAIL = "usersMissingByEmail";
+    
+    private static final Logger log = LoggerFactory.getLogger(UserLookupCache.class);
+    
+    private final Cache byId;
+    private final Cache byEmail;
+    private final Cache missingById;
+    private final Cache missingByEmail;
+    private final SingleFlight<Long, UserDto> byIdLoads;
+    private final SingleFlight<String, UserDto> byEmailLoads;
+    
+    public UserLookupCache(CacheManager cacheManager,
+                           @Value("${users.lookup.coalesce-timeout:2s}") Duration coalesceTimeout) {
+        this.byId = cacheManager.getCache(BY_ID);
+        this.byEmail = cacheManager.getCache(BY_EMAIL);
+        this.missingById = cacheManager.getCache(MISSING_BY_ID);
+        this.missingByEmail = cacheManager.getCache(MISSING_BY_EMAIL);
+        this.byIdLoads = new SingleFlight<>(coalesceTimeout);
+        this.byEmailLoads = new SingleFlight<>(coalesceTimeout);
+    }
+    
+    public UserDto getById(Long id) {
+        return byId.get(id, UserDto.class);
+    }
+    
+    public UserDto getByEmail(String email) {
+        return byEmail.get(emailKey(email), UserDto.class);
+    }
+    
+    public boolean isMissingId(Long id) {
+        return missingById.get(id) != null;
+    }
+    
+    public boolean isMissingEmail(String email) {
+        return missingByEmail.get(emailKey(email)) != null;
+    }
+    
+    /**
+     * Remembers that no active user has the id. Only done for committed reads: inside a
+     * transaction the answer may be about to be rolled back.
+     */
+    public void putMissingId(Long id) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            missingById.put(id, Boolean.TRUE);
+        }
+    }
+    
+    public void putMissingEmail(String email) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            missingByEmail.put(emailKey(email), Boolean.TRUE);
+        }
+    }
+    
+    /**
+     * Drops the negative entries for a new user now and again after commit, so a lookup that
+     * ran just before the insert committed cannot keep reporting it as missing.
+     */
+    public void forgetMissing(Long id, String email) {
+        Runnable forget = () -> {
+            missingById.evict(id);
+            missingByEmail.evict(emailKey(email));
+        };
+        forget.run();
+        AfterCommit.run(forget);
+    }
+    
+    /**
+     * Loads and caches a user missing from the cache, sharing the load with concurrent
+     * callers asking for the same id. Inside a transaction the caller may see its own
+     * uncommitted writes, so it loads on its own.
+     */
+    public UserDto loadById(Long id, Supplier<UserDto> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadAndPut(loader);
+        }
+        return byIdLoads.load(id, () -> loadAndPut(loader));
+    }
+    
+    public UserDto loadByEmail(String email, Supplier<UserDto> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadAndPut(loader);
+        }
+        return byEmailLoads.load(emailKey(email), () -> loadAndPut(loader));
+    }
+    
+    public void put(UserDto user) {
+        byId.put(user.getId(), user);
+        byEmail.put(emailKey(user.getEmail()), user);
+    }
+    
+    public void putAfterCommit(UserDto user) {
+        AfterCommit.run(() -> put(user));
+    }
+    
+    /**
+     * Drops the id and every given email now and again once the transaction commits, so
+     * a reader that loaded the pre-commit row in between cannot leave it cached.
+     */
+    public void evict(Long id, String... emails) {
+        evictNow(id, emails);
+        AfterCommit.run(() -> evictNow(id, emails));
+    }
+    
+    private void evictNow(Long id, String... emails) {
+        log.info("Evicting cached user - ID: {}", id);
+        byId.evict(id);
+        byIdLoads.forget(id);
+        missingById.evict(id);
+        for (String email : emails) {
+            if (email != null) {
+                byEmail.evict(emailKey(email));
+                byEmailLoads.forget(emailKey(email));
+                missingByEmail.evict(emailKey(email));
+            }
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindLoads(registry, BY_ID, byIdLoads);
+        bindLoads(registry, BY_EMAIL, byEmailLoads);
+    }
+    
+    private UserDto loadAndPut(Supplier<UserDto> loader) {
+        UserDto user = loader.get();
+        put(user);
+        return user;
+    }
+    
+    private static void bindLoads(MeterRegistry registry, String cacheName, SingleFlight<?, ?> loads) {
+        FunctionCounter.builder("users.lookup.loads", loads, SingleFlight::getLoads)
+                .description("Cache misses loaded from the database")
+                .tag("cache", cacheName)
+                .register(registry);
+        FunctionCounter.builder("users.lookup.coalesced", loads, SingleFlight::getCoalesced)
+                .description("Cache misses that waited for a concurrent load of the same key")
+                .tag("cache", cacheName)
+                .register(registry);
+        FunctionCounter.builder("users.lookup.coalesce.timeouts", loads, SingleFlight::getTimeouts)
+                .tag("cache", cacheName)
+                .register(registry);
+        Gauge.builder("users.lookup.inflight", loads, SingleFlight::getInFlight)
+                .tag("cache", cacheName)
+                .register(registry);
+    }
+    
+    // MySQL compares emails case-insensitively, so the cache must too or stale
+    // differently-cased keys would survive an eviction.
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
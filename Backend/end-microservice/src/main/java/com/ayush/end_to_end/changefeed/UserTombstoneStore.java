@@ -0,0 +1,54 @@
+package com.ayush.end_to_end.changefeed;
+
+import com.ayush.end_to_end.entity.UserTombstone;
+import com.ayush.end_to_end.repository.UserTombstoneRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Records hard deletes for the user change feed. Tombstones are kept for
+ * {@code users.changes.tombstone-retention}; a consumer whose cursor is older than that
+ * may have missed deletions and has to resynchronize.
+ */
+@Component
+public class UserTombstoneStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserTombstoneStore.class);
+    
+    @Autowired
+    private UserTombstoneRepository userTombstoneRepository;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${users.changes.tombstone-retention:30d}")
+    private Duration retention;
+    
+    // persist rather than save: the id is assigned, and save would merge (SELECT first)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, String email, LocalDateTime deletedAt) {
+        entityManager.persist(new UserTombstone(userId, email, deletedAt));
+    }
+    
+    public boolean isRetained(LocalDateTime position) {
+        return !position.isBefore(LocalDateTime.now().minus(retention));
+    }
+    
+    @Scheduled(fixedDelayString = "${users.changes.purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = userTombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(retention));
+        log.info("Purged {} expired user tombstones", purged);
+    }
+}
@@ -0,0 +1,92 @@
+package com.ayush.end_to_end.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeType;
+import org.springframework.web.server.WebFilter;
+
+/**
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) next to
+ * JSON, chosen by the {@code Accept} and {@code Content-Type} headers. JSON stays first, so
+ * browsers and {@code Accept: *}{@code /*} callers are unaffected. The binary mappers come
+ * from Boot's builder: Spring's defaults would miss our modules, date format and the
+ * {@code UserDto} field filter.
+ *
+ * Because the same user URL can answer in any of the three formats, responses under
+ * {@code /api/users} carry {@code Vary: Accept}, so shared caches keep the encodings apart.
+ * It is added before the request is handled, so 304 and error responses carry it too. Other
+ * endpoints only produce JSON and are left alone.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+    
+    static final String USERS_PATH = "/api/users";
+    
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+    
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<Filter> varyAcceptFilter() {
+        Filter filter = (request, response, chain) -> {
+            ((HttpServletResponse) response).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            chain.doFilter(request, response);
+        };
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(USERS_PATH, USERS_PATH + "/*");
+        return registration;
+    }
+    
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public WebFilter varyAcceptWebFilter() {
+        return (exchange, chain) -> {
+            String path = exchange.getRequest().getPath().pathWithinApplication().value();
+            if (path.equals(USERS_PATH) || path.startsWith(USERS_PATH + "/")) {
+                exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return chain.filter(exchange);
+        };
+    }
+    
+    // WebFlux only has a default (JSON-first) slot for Smile; a CBOR codec would have to be
+    // registered as a custom codec, which is consulted before JSON for */* requests and for
+    // WebClient request bodies, so the reactive variant offers Smile only. The MIME types must
+    // be passed: the mapper-only constructors fall back to the JSON ones.
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        MimeType[] smileTypes = {
+                new MimeType("application", "x-jackson-smile"),
+                new MimeType("application", "*+x-jackson-smile")
+        };
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, smileTypes));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, smileTypes));
+        };
+    }
+}
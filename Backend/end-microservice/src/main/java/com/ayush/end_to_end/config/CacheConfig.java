@@ -0,0 +1,39 @@
+package com.ayush.end_to_end.config;
+
+import com.ayush.end_to_end.cache.UserLookupCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Caches themselves are declared in application.properties (spring.cache.*) so that
+// Spring Boot registers their hit/miss/eviction metrics with actuator.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    // The negative caches need a much shorter TTL than the shared spec; registering them on
+    // the cache manager still gets them the same cache.* metrics
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> missingUsersCacheCustomizer(
+            @Value("${users.lookup.negative-ttl:10s}") Duration negativeTtl,
+            @Value("${users.lookup.negative-max-size:100000}") long negativeMaxSize) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(UserLookupCache.MISSING_BY_ID, Caffeine.newBuilder()
+                    .expireAfterWrite(negativeTtl)
+                    .maximumSize(negativeMaxSize)
+                    .recordStats()
+                    .build());
+            cacheManager.registerCustomCache(UserLookupCache.MISSING_BY_EMAIL, Caffeine.newBuilder()
+                    .expireAfterWrite(negativeTtl)
+                    .maximumSize(negativeMaxSize)
+                    .recordStats()
+                    .build());
+        };
+    }
+}
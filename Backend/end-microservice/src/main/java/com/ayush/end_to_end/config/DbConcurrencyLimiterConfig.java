@@ -0,0 +1,84 @@
+package com.ayush.end_to_end.config;
+
+import com.ayush.end_to_end.datasource.ConcurrencyLimitingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application DataSource in a {@link ConcurrencyLimitingDataSource} when
+ * {@code app.db.concurrency-limit.enabled=true} (on in the virtual-threads profile).
+ * Read replica pools are not beans, so {@link ReadReplicaConfig} limits them through
+ * {@link #limit} instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db.concurrency-limit.enabled", havingValue = "true")
+public class DbConcurrencyLimiterConfig {
+    
+    // Must wrap the pool itself, inside the replica routing proxy (ReadReplicaConfig.ROUTING_ORDER):
+    // outside it, the permit would be taken for the lazy proxy and held for replica reads too
+    static final int LIMITER_ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+    
+    @Bean
+    static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment,
+                                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        return new LimitingPostProcessor(environment, meterRegistry, poolSize);
+    }
+    
+    /**
+     * Wraps one pool in a limiter sized by {@code app.db.concurrency-limit.max-concurrent},
+     * or by the pool's own size when that is not set, with gauges tagged {@code datasource=name}.
+     */
+    public static ConcurrencyLimitingDataSource limit(DataSource dataSource, String name, int poolSize,
+                                                      Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxConcurrent = environment.getProperty("app.db.concurrency-limit.max-concurrent", Integer.class, poolSize);
+        Duration acquireTimeout = environment.getProperty("app.db.concurrency-limit.acquire-timeout", Duration.class,
+                Duration.ofSeconds(5));
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(dataSource, maxConcurrent, acquireTimeout);
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("db.limiter.permits.available", limited, ConcurrencyLimitingDataSource::getAvailablePermits)
+                    .tag("datasource", name)
+                    .register(registry);
+            Gauge.builder("db.limiter.waiting", limited, ConcurrencyLimitingDataSource::getQueueLength)
+                    .tag("datasource", name)
+                    .register(registry);
+        });
+        return limited;
+    }
+    
+    private static final class LimitingPostProcessor implements BeanPostProcessor, Ordered {
+        
+        private final Environment environment;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final int poolSize;
+        
+        private LimitingPostProcessor(Environment environment, ObjectProvider<MeterRegistry> meterRegistry, int poolSize) {
+            this.environment = environment;
+            this.meterRegistry = meterRegistry;
+            this.poolSize = poolSize;
+        }
+        
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource) {
+                return bean;
+            }
+            return limit(dataSource, beanName, poolSize, environment, meterRegistry);
+        }
+        
+        @Override
+        public int getOrder() {
+            return LIMITER_ORDER;
+        }
+    }
+}
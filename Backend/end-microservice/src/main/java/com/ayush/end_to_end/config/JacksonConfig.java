@@ -0,0 +1,17 @@
+package com.ayush.end_to_end.config;
+
+import com.ayush.end_to_end.dto.UserFields;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+    
+    // UserDto names a property filter for sparse fieldsets; writers that do not pick a
+    // selection (caches, idempotency records, WebFlux) serialize every field
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer userFieldsFilterCustomizer() {
+        return builder -> builder.filters(UserFields.ALL.filterProvider());
+    }
+}
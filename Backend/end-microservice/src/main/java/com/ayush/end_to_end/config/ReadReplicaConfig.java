@@ -0,0 +1,114 @@
+package com.ayush.end_to_end.config;
+
+import com.ayush.end_to_end.datasource.ReplicaLoadBalancer;
+import com.ayush.end_to_end.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Routes read-only transactions to read replicas when {@code app.db.replicas.enabled=true}.
+ * The application DataSource is wrapped in a {@link LazyConnectionDataSourceProxy}, which
+ * defers fetching a connection until the first statement; by then the transaction manager
+ * has marked the connection read-only, and read-only connections come from the replica pools
+ * ({@code app.db.replicas.urls}) while everything else uses the primary pool.
+ *
+ * The replica pools are created here rather than as DataSource beans, so that nothing else
+ * wraps or routes them. They therefore get what the primary pool gets from Boot and
+ * {@link DbConcurrencyLimiterConfig} explicitly: {@code hikaricp.*} metrics, and a
+ * concurrency limiter of their own when {@code app.db.concurrency-limit.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    
+    // Applied after the limiter (DbConcurrencyLimiterConfig.LIMITER_ORDER), so the proxy routes
+    // between the limited primary and the separately limited replicas
+    static final int ROUTING_ORDER = Ordered.LOWEST_PRECEDENCE;
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaLoadBalancer replicaLoadBalancer(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<String> urls = binder.bind("app.db.replicas.urls", Bindable.listOf(String.class)).orElse(List.of());
+        ReplicaLoadBalancer.Strategy strategy = binder.bind("app.db.replicas.strategy", ReplicaLoadBalancer.Strategy.class)
+                .orElse(ReplicaLoadBalancer.Strategy.ROUND_ROBIN);
+        Duration connectionTimeout = environment.getProperty("app.db.replicas.connection-timeout", Duration.class,
+                Duration.ofSeconds(2));
+        List<HikariDataSource> pools = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(environment.getProperty("app.db.replicas.username",
+                    environment.getProperty("spring.datasource.username")));
+            config.setPassword(environment.getProperty("app.db.replicas.password",
+                    environment.getProperty("spring.datasource.password")));
+            String driverClassName = environment.getProperty("spring.datasource.driver-class-name");
+            if (driverClassName != null) {
+                config.setDriverClassName(driverClassName);
+            }
+            config.setMaximumPoolSize(environment.getProperty("app.db.replicas.maximum-pool-size", Integer.class,
+                    environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10)));
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // Start even when a replica is unreachable; the health check brings it into rotation later
+            config.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            pools.add(new HikariDataSource(config));
+        }
+        Function<HikariDataSource, DataSource> connectionSource = pool -> pool;
+        if (environment.getProperty("app.db.concurrency-limit.enabled", Boolean.class, false)) {
+            connectionSource = pool -> DbConcurrencyLimiterConfig.limit(pool, pool.getPoolName(), pool.getMaximumPoolSize(),
+                    environment, meterRegistry);
+        }
+        ReplicaLoadBalancer loadBalancer = new ReplicaLoadBalancer(pools, connectionSource, strategy, connectionTimeout);
+        loadBalancer.checkHealth();
+        return loadBalancer;
+    }
+    
+    @Bean
+    static BeanPostProcessor replicaRoutingDataSourcePostProcessor(ObjectProvider<ReplicaLoadBalancer> loadBalancer) {
+        return new RoutingPostProcessor(loadBalancer);
+    }
+    
+    private static final class RoutingPostProcessor implements BeanPostProcessor, Ordered {
+        
+        private final ObjectProvider<ReplicaLoadBalancer> loadBalancer;
+        
+        private RoutingPostProcessor(ObjectProvider<ReplicaLoadBalancer> loadBalancer) {
+            this.loadBalancer = loadBalancer;
+        }
+        
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof LazyConnectionDataSourceProxy) {
+                return bean;
+            }
+            LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(dataSource);
+            routing.setReadOnlyDataSource(new ReplicaRoutingDataSource(loadBalancer.getObject(), dataSource));
+            return routing;
+        }
+        
+        @Override
+        public int getOrder() {
+            return ROUTING_ORDER;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ayush.end_to_end.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary instead of a replica,
+ * for reads that must see writes that may not have replicated yet. Only consulted when read
+ * replicas are configured.
+ */
+public final class ReadRouting {
+    
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    
+    private ReadRouting() {
+    }
+    
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+    
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (isPrimaryRequired()) {
+            return reads.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+    
+    public static void onPrimary(Runnable reads) {
+        onPrimary(() -> {
+            reads.run();
+            return null;
+        });
+    }
+    
+    // For callers that cannot pass a Supplier (the servlet filter); must be paired with clear()
+    static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+    
+    static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,173 @@
+package com.ayush.end_to_end.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Picks the replica pool that serves the next read-only transaction, round-robin or by fewest
+ * active connections. Replicas start out down and are only used once a health check has
+ * validated a connection; a replica that fails to hand out a connection is taken out of
+ * rotation until the next successful check. When no replica is up, reads go to the primary
+ * (see {@link ReplicaRoutingDataSource}).
+ */
+public class ReplicaLoadBalancer implements MeterBinder, AutoCloseable {
+    
+    public enum Strategy { ROUND_ROBIN, LEAST_CONNECTIONS }
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLoadBalancer.class);
+    
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    
+    public ReplicaLoadBalancer(List<HikariDataSource> pools, Strategy strategy, Duration validationTimeout) {
+        this(pools, Function.identity(), strategy, validationTimeout);
+    }
+    
+    /**
+     * Reads borrow connections through {@code connectionSource} applied to each pool (a
+     * concurrency limiter, say); health checks go to the pool directly.
+     */
+    public ReplicaLoadBalancer(List<HikariDataSource> pools, Function<? super HikariDataSource, ? extends DataSource> connectionSource,
+                               Strategy strategy, Duration validationTimeout) {
+        this.replicas = pools.stream().map(pool -> new Replica(pool, connectionSource.apply(pool))).toList();
+        this.strategy = strategy;
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+    
+    /**
+     * A connection from a healthy replica, or null when none is up or all of them failed.
+     */
+    public Connection getConnection() {
+        for (Replica replica : candidates()) {
+            try {
+                Connection connection = replica.connectionSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException ex) {
+                markDown(replica, ex.getMessage());
+            }
+        }
+        return null;
+    }
+    
+    public void recordPrimaryRead() {
+        primaryReads.increment();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.db.replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    markUp(replica);
+                } else {
+                    markDown(replica, "connection is not valid");
+                }
+            } catch (SQLException ex) {
+                markDown(replica, ex.getMessage());
+            }
+        }
+    }
+    
+    public boolean isHealthy(String poolName) {
+        return replicas.stream().anyMatch(replica -> replica.pool.getPoolName().equals(poolName) && replica.healthy);
+    }
+    
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.up", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica passed its last health check")
+                    .tag("replica", replica.pool.getPoolName())
+                    .register(registry);
+        }
+        FunctionCounter.builder("db.replicas.reads", replicaReads, LongAdder::sum)
+                .description("Read-only connections by the DataSource that served them")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("db.replicas.reads", primaryReads, LongAdder::sum)
+                .tag("target", "primary")
+                .register(registry);
+    }
+    
+    // Healthy replicas in the order they should be tried
+    private List<Replica> candidates() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.size() < 2) {
+            return healthy;
+        }
+        if (strategy == Strategy.LEAST_CONNECTIONS) {
+            healthy.sort(Comparator.comparingInt(Replica::activeConnections));
+            return healthy;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), healthy.size());
+        List<Replica> ordered = new ArrayList<>(healthy.size());
+        ordered.addAll(healthy.subList(start, healthy.size()));
+        ordered.addAll(healthy.subList(0, start));
+        return ordered;
+    }
+    
+    private void markUp(Replica replica) {
+        if (!replica.healthy) {
+            replica.healthy = true;
+            log.info("Read replica {} is up", replica.pool.getPoolName());
+        }
+    }
+    
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.info("Read replica {} is down - {}", replica.pool.getPoolName(), reason);
+        }
+    }
+    
+    private static final class Replica {
+        
+        private final HikariDataSource pool;
+        private final DataSource connectionSource;
+        private volatile boolean healthy;
+        
+        private Replica(HikariDataSource pool, DataSource connectionSource) {
+            this.pool = pool;
+            this.connectionSource = connectionSource;
+        }
+        
+        private int activeConnections() {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean != null ? mxBean.getActiveConnections() : 0;
+        }
+    }
+}
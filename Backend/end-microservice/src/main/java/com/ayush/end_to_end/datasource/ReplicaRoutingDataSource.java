@@ -0,0 +1,42 @@
+package com.ayush.end_to_end.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The read-only side of the application DataSource. {@code LazyConnectionDataSourceProxy}
+ * asks it for the connection of every read-only transaction; it hands out a replica
+ * connection unless the current thread must read its own writes (see {@link ReadRouting}),
+ * or no replica is available, in which case the primary serves the read.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    
+    private final ReplicaLoadBalancer loadBalancer;
+    private final DataSource primary;
+    
+    public ReplicaRoutingDataSource(ReplicaLoadBalancer loadBalancer, DataSource primary) {
+        this.loadBalancer = loadBalancer;
+        this.primary = primary;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadRouting.isPrimaryRequired()) {
+            Connection replica = loadBalancer.getConnection();
+            if (replica != null) {
+                return replica;
+            }
+        }
+        loadBalancer.recordPrimaryRead();
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Replica pools are configured with their own credentials
+        return getConnection();
+    }
+}
@@ -0,0 +1,57 @@
+package com.ayush.end_to_end.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkCreateResult {
+    
+    private int created;
+    private int conflicts;
+    private int invalid;
+    private List<BulkItemResult> items = new ArrayList<>();
+    
+    // Default constructor
+    public BulkCreateResult() {}
+    
+    public void add(BulkItemResult item) {
+        switch (item.getStatus()) {
+            case CREATED -> created++;
+            case CONFLICT -> conflicts++;
+            case INVALID -> invalid++;
+        }
+        items.add(item);
+    }
+    
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getConflicts() {
+        return conflicts;
+    }
+    
+    public void setConflicts(int conflicts) {
+        this.conflicts = conflicts;
+    }
+    
+    public int getInvalid() {
+        return invalid;
+    }
+    
+    public void setInvalid(int invalid) {
+        this.invalid = invalid;
+    }
+    
+    public List<BulkItemResult> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<BulkItemResult> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ayush.end_to_end.dto;
+
+public class BulkItemResult {
+    
+    private int index;
+    private String email;
+    private BulkItemStatus status;
+    private Long id;
+    private String message;
+    
+    // Default constructor
+    public BulkItemResult() {}
+    
+    // Constructor with all fields
+    public BulkItemResult(int index, String email, BulkItemStatus status, Long id, String message) {
+        this.index = index;
+        this.email = email;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+    
+    public static BulkItemResult created(int index, String email, Long id) {
+        return new BulkItemResult(index, email, BulkItemStatus.CREATED, id, null);
+    }
+    
+    public static BulkItemResult conflict(int index, String email) {
+        return new BulkItemResult(index, email, BulkItemStatus.CONFLICT, null, "User already exists with email: " + email);
+    }
+    
+    public static BulkItemResult invalid(int index, String email, String message) {
+        return new BulkItemResult(index, email, BulkItemStatus.INVALID, null, message);
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public BulkItemStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(BulkItemStatus status) {
+        this.status = status;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
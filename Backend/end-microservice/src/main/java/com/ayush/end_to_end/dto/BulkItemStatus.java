@@ -0,0 +1,7 @@
+package com.ayush.end_to_end.dto;
+
+public enum BulkItemStatus {
+    CREATED,
+    CONFLICT,
+    INVALID
+}
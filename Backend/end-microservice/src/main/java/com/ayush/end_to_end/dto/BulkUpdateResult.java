@@ -0,0 +1,53 @@
+package com.ayush.end_to_end.dto;
+
+/**
+ * Outcome of a bulk activate/deactivate/delete. {@code matched} users were selected,
+ * {@code affected} of them were actually changed (e.g. deactivating an already inactive user
+ * matches but does not affect it), across {@code chunks} separately committed transactions.
+ */
+public class BulkUpdateResult {
+    
+    private long matched;
+    private long affected;
+    private int chunks;
+    
+    // Default constructor
+    public BulkUpdateResult() {}
+    
+    public void addChunk(int chunkMatched, int chunkAffected) {
+        matched += chunkMatched;
+        affected += chunkAffected;
+        chunks++;
+    }
+    
+    public void add(BulkUpdateResult other) {
+        matched += other.matched;
+        affected += other.affected;
+        chunks += other.chunks;
+    }
+    
+    // Getters and Setters
+    public long getMatched() {
+        return matched;
+    }
+    
+    public void setMatched(long matched) {
+        this.matched = matched;
+    }
+    
+    public long getAffected() {
+        return affected;
+    }
+    
+    public void setAffected(long affected) {
+        this.affected = affected;
+    }
+    
+    public int getChunks() {
+        return chunks;
+    }
+    
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+}
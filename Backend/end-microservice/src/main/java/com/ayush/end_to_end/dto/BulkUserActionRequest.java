@@ -0,0 +1,49 @@
+package com.ayush.end_to_end.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects the users affected by a bulk activate/deactivate/delete: either an explicit list
+ * of {@code ids}, or every user (in the state the action applies to) whose
+ * {@code updatedAt} is before {@code updatedBefore}. Exactly one of the two must be given.
+ */
+public class BulkUserActionRequest {
+    
+    private List<Long> ids;
+    private LocalDateTime updatedBefore;
+    
+    // Default constructor
+    public BulkUserActionRequest() {}
+    
+    // Constructor with all fields
+    public BulkUserActionRequest(List<Long> ids, LocalDateTime updatedBefore) {
+        this.ids = ids;
+        this.updatedBefore = updatedBefore;
+    }
+    
+    public static BulkUserActionRequest byIds(List<Long> ids) {
+        return new BulkUserActionRequest(ids, null);
+    }
+    
+    public static BulkUserActionRequest updatedBefore(LocalDateTime updatedBefore) {
+        return new BulkUserActionRequest(null, updatedBefore);
+    }
+    
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    public LocalDateTime getUpdatedBefore() {
+        return updatedBefore;
+    }
+    
+    public void setUpdatedBefore(LocalDateTime updatedBefore) {
+        this.updatedBefore = updatedBefore;
+    }
+}
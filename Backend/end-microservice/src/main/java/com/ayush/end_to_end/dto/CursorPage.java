@@ -0,0 +1,67 @@
+package com.ayush.end_to_end.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is opaque to clients and
+ * is passed back as {@code after} to fetch the following page; it is null on the last page.
+ */
+public class CursorPage<T> {
+    
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+    
+    // Default constructor
+    public CursorPage() {}
+    
+    // Constructor with all fields
+    public CursorPage(List<T> items, String nextCursor, boolean hasMore, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.limit = limit;
+    }
+    
+    public static <T> CursorPage<T> of(List<T> items, String nextCursor, int limit) {
+        return new CursorPage<T>(items, nextCursor, nextCursor != null, limit);
+    }
+    
+    public static <T> CursorPage<T> unpaged(List<T> items) {
+        return new CursorPage<T>(items, null, false, items.size());
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
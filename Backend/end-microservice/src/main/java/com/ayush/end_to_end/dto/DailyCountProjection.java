@@ -0,0 +1,7 @@
+package com.ayush.end_to_end.dto;
+
+import java.time.LocalDate;
+
+// One row of a GROUP BY day count
+public record DailyCountProjection(LocalDate day, Long count) {
+}
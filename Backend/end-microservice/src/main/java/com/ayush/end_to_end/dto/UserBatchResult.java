@@ -0,0 +1,51 @@
+package com.ayush.end_to_end.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a multi-get. {@code users} holds the active users found, in the order they were
+ * requested (ids first, then emails; a user matched twice is listed once). Ids and emails
+ * without an active user are reported in {@code missingIds} and {@code missingEmails}.
+ */
+public class UserBatchResult {
+    
+    private List<UserDto> users = new ArrayList<>();
+    private List<Long> missingIds = new ArrayList<>();
+    private List<String> missingEmails = new ArrayList<>();
+    
+    // Default constructor
+    public UserBatchResult() {}
+    
+    // Constructor with all fields
+    public UserBatchResult(List<UserDto> users, List<Long> missingIds, List<String> missingEmails) {
+        this.users = users;
+        this.missingIds = missingIds;
+        this.missingEmails = missingEmails;
+    }
+    
+    // Getters and Setters
+    public List<UserDto> getUsers() {
+        return users;
+    }
+    
+    public void setUsers(List<UserDto> users) {
+        this.users = users;
+    }
+    
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+    
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+    
+    public List<String> getMissingEmails() {
+        return missingEmails;
+    }
+    
+    public void setMissingEmails(List<String> missingEmails) {
+        this.missingEmails = missingEmails;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ayush.end_to_end.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the user change feed: the current state of a created or modified user, or a
+ * deletion (without {@code user}). {@code changedAt} is the user's {@code updatedAt} or the
+ * time of deletion.
+ */
+public class UserChange {
+    
+    private UserChangeType type;
+    private Long id;
+    private LocalDateTime changedAt;
+    private UserDto user;
+    
+    // Default constructor
+    public UserChange() {}
+    
+    // Constructor with all fields
+    public UserChange(UserChangeType type, Long id, LocalDateTime changedAt, UserDto user) {
+        this.type = type;
+        this.id = id;
+        this.changedAt = changedAt;
+        this.user = user;
+    }
+    
+    public static UserChange upserted(UserDto user) {
+        return new UserChange(UserChangeType.UPSERTED, user.getId(), user.getUpdatedAt(), user);
+    }
+    
+    public static UserChange deleted(Long id, LocalDateTime deletedAt) {
+        return new UserChange(UserChangeType.DELETED, id, deletedAt, null);
+    }
+    
+    // Getters and Setters
+    public UserChangeType getType() {
+        return type;
+    }
+    
+    public void setType(UserChangeType type) {
+        this.type = type;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+    
+    public UserDto getUser() {
+        return user;
+    }
+    
+    public void setUser(UserDto user) {
+        this.user = user;
+    }
+}
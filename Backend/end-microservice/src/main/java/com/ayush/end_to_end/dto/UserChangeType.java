@@ -0,0 +1,10 @@
+package com.ayush.end_to_end.dto;
+
+/**
+ * Kind of entry in the user change feed. Creates, updates, activation and deactivation are
+ * all {@code UPSERTED}: the entry carries the user's current state, including {@code isActive}.
+ */
+public enum UserChangeType {
+    UPSERTED,
+    DELETED
+}
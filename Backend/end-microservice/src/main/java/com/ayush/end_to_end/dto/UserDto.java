@@ -1,11 +1,13 @@
 package com.ayush.end_to_end.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
 
+@JsonFilter(UserFields.FILTER_ID)
 public class UserDto {
     
     private Long id;
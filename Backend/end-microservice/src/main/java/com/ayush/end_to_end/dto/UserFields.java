@@ -0,0 +1,80 @@
+package com.ayush.end_to_end.dto;
+
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A validated {@code fields=} selection of {@link UserDto} properties (sparse fieldset).
+ * Responses contain exactly the requested properties; queries additionally read
+ * {@code id} and {@code updatedAt}, which paging and ETags depend on.
+ */
+public final class UserFields {
+    
+    public static final String FILTER_ID = "userFields";
+    
+    public static final List<String> NAMES = List.of("id", "firstName", "lastName", "email", "phoneNumber",
+            "address", "createdAt", "updatedAt", "isActive");
+    
+    public static final UserFields ALL = new UserFields(new LinkedHashSet<>(NAMES));
+    
+    private final Set<String> names;
+    private final FilterProvider filterProvider;
+    
+    private UserFields(Set<String> names) {
+        this.names = Collections.unmodifiableSet(names);
+        SimpleBeanPropertyFilter filter = names.size() == NAMES.size()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(names);
+        this.filterProvider = new SimpleFilterProvider().addFilter(FILTER_ID, filter);
+    }
+    
+    // A missing or blank parameter selects every field
+    public static UserFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!NAMES.contains(name)) {
+                throw new InvalidRequestException("Unknown field '" + name + "'; fields must be a comma-separated list of "
+                        + String.join(", ", NAMES));
+            }
+            selected.add(name);
+        }
+        return selected.size() == NAMES.size() ? ALL : new UserFields(selected);
+    }
+    
+    public boolean isAll() {
+        return this == ALL;
+    }
+    
+    public Set<String> names() {
+        return names;
+    }
+    
+    // What the database has to return: the requested fields plus the keyset and ETag inputs
+    public Set<String> columns() {
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("id");
+        columns.add("updatedAt");
+        columns.addAll(names);
+        return columns;
+    }
+    
+    public FilterProvider filterProvider() {
+        return filterProvider;
+    }
+    
+    @Override
+    public String toString() {
+        return String.join(",", names);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ayush.end_to_end.dto;
+
+import java.time.LocalDateTime;
+
+// Just enough of a user to evict its lookup cache entries and adjust the user counters
+// after a set-based write
+public record UserKeyProjection(Long id, String email, Boolean isActive, LocalDateTime createdAt) {
+}
@@ -0,0 +1,4 @@
+package com.ayush.end_to_end.dto;
+
+public record UserNameProjection(Long id, String firstName, String lastName) {
+}
@@ -0,0 +1,73 @@
+package com.ayush.end_to_end.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * User counts served from the materialized counters. {@code createdPerDay} lists every day of
+ * the configured window, oldest first, with the number of existing users created that day.
+ * {@code reconciledAt} is when the counters were last checked against the database.
+ */
+public class UserStats {
+    
+    private long total;
+    private long active;
+    private long inactive;
+    private Map<LocalDate, Long> createdPerDay = new LinkedHashMap<>();
+    private LocalDateTime reconciledAt;
+    
+    // Default constructor
+    public UserStats() {}
+    
+    // Constructor with all fields
+    public UserStats(long total, long active, long inactive, Map<LocalDate, Long> createdPerDay, LocalDateTime reconciledAt) {
+        this.total = total;
+        this.active = active;
+        this.inactive = inactive;
+        this.createdPerDay = createdPerDay;
+        this.reconciledAt = reconciledAt;
+    }
+    
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(long total) {
+        this.total = total;
+    }
+    
+    public long getActive() {
+        return active;
+    }
+    
+    public void setActive(long active) {
+        this.active = active;
+    }
+    
+    public long getInactive() {
+        return inactive;
+    }
+    
+    public void setInactive(long inactive) {
+        this.inactive = inactive;
+    }
+    
+    public Map<LocalDate, Long> getCreatedPerDay() {
+        return createdPerDay;
+    }
+    
+    public void setCreatedPerDay(Map<LocalDate, Long> createdPerDay) {
+        this.createdPerDay = createdPerDay;
+    }
+    
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+    
+    public void setReconciledAt(LocalDateTime reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ayush.end_to_end.dto;
+
+import java.time.LocalDateTime;
+
+// What a conditional request needs to know about a user, without loading the row
+public record UserVersion(Long id, LocalDateTime updatedAt) {
+}
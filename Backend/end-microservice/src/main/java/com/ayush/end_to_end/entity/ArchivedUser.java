@@ -0,0 +1,138 @@
+package com.ayush.end_to_end.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user that stayed inactive for longer than {@code users.archive.inactive-age}, moved out
+ * of {@code users} so the hot table and its indexes only hold users likely to be read.
+ * Archived users are inactive by definition; activating one moves it back. The id is the
+ * original user id, so it stays unique across both tables.
+ */
+@Entity
+@Table(name = "users_archive", indexes = {
+    @Index(name = "idx_users_archive_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_users_archive_created_at", columnList = "created_at"),
+    @Index(name = "idx_users_archive_email", columnList = "email")
+})
+public class ArchivedUser {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "first_name", nullable = false)
+    private String firstName;
+    
+    @Column(name = "last_name", nullable = false)
+    private String lastName;
+    
+    // Stays reserved while archived: creates and updates check this table too. Not unique,
+    // since archives made before that may hold emails that were taken again since
+    @Column(name = "email", nullable = false)
+    private String email;
+    
+    @Column(name = "phone_number")
+    private String phoneNumber;
+    
+    @Column(name = "address")
+    private String address;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    // Default constructor
+    public ArchivedUser() {}
+    
+    // Constructor with all fields
+    public ArchivedUser(Long id, String firstName, String lastName, String email, String phoneNumber, String address, LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime archivedAt) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.address = address;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.archivedAt = archivedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+    
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public void setAddress(String address) {
+        this.address = address;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
@@ -10,11 +10,23 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_active_id", columnList = "is_active, id"),
+    @Index(name = "idx_users_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_users_created_at", columnList = "created_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email")
+})
 public class User {
     
+    // Named so that violations can be told apart from other integrity errors
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+    
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so Hibernate can batch inserts;
+    // allocationSize must match hibernate.jdbc.batch_size for full batches.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "First name is required")
@@ -29,7 +41,7 @@ public class User {
     
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(name = "email", nullable = false, unique = true)
+    @Column(name = "email", nullable = false)
     private String email;
     
     @NotBlank(message = "Phone number is required")
@@ -0,0 +1,63 @@
+package com.ayush.end_to_end.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a hard-deleted user for the change feed. Written in the transaction that deletes
+ * the row, so consumers see the deletion exactly when the user disappears; tombstones older
+ * than {@code users.changes.tombstone-retention} are purged.
+ */
+@Entity
+@Table(name = "user_tombstones", indexes = {
+    @Index(name = "idx_user_tombstones_deleted_at_user_id", columnList = "deleted_at, user_id")
+})
+public class UserTombstone {
+    
+    // User ids come from a sequence and are never reused, so one tombstone per id suffices
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "email", nullable = false)
+    private String email;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    // Default constructor
+    public UserTombstone() {}
+    
+    // Constructor with all fields
+    public UserTombstone(Long userId, String email, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.email = email;
+        this.deletedAt = deletedAt;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
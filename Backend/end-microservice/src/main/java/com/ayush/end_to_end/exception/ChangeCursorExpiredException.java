@@ -0,0 +1,9 @@
+package com.ayush.end_to_end.exception;
+
+public class ChangeCursorExpiredException extends RuntimeException {
+    
+    public ChangeCursorExpiredException(String cursor) {
+        super("Change cursor is older than the tombstone retention and may have missed deletions; "
+                + "resynchronize from the start of the feed: " + cursor);
+    }
+}
@@ -3,6 +3,7 @@ package com.ayush.end_to_end.exception;
 import com.ayush.end_to_end.dto.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -32,6 +33,42 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
     
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiResponse<String>> handleInvalidRequestException(InvalidRequestException ex) {
+        log.info("Handling InvalidRequestException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ApiResponse<String>> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException ex) {
+        log.info("Handling IdempotencyKeyConflictException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiResponse<String>> handlePreconditionFailedException(PreconditionFailedException ex) {
+        log.info("Handling PreconditionFailedException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ChangeCursorExpiredException.class)
+    public ResponseEntity<ApiResponse<String>> handleChangeCursorExpiredException(ChangeCursorExpiredException ex) {
+        log.info("Handling ChangeCursorExpiredException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(LookupTimeoutException.class)
+    public ResponseEntity<ApiResponse<String>> handleLookupTimeoutException(LookupTimeoutException ex) {
+        log.info("Handling LookupTimeoutException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         log.info("Handling validation exception with {} field errors", ex.getBindingResult().getFieldErrorCount());
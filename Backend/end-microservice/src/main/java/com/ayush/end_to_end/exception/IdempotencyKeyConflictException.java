@@ -0,0 +1,8 @@
+package com.ayush.end_to_end.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+    
+    public IdempotencyKeyConflictException(String key) {
+        super("Idempotency key was already used for a different request: " + key);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ayush.end_to_end.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ayush.end_to_end.exception;
+
+public class LookupTimeoutException extends RuntimeException {
+    
+    public LookupTimeoutException(String key, long timeoutMillis) {
+        super("Timed out after " + timeoutMillis + " ms waiting for a concurrent lookup of " + key);
+    }
+}
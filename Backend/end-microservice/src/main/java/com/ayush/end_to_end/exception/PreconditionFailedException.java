@@ -0,0 +1,8 @@
+package com.ayush.end_to_end.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    
+    public PreconditionFailedException(Long id) {
+        super("User has been modified since it was read (If-Match does not match) for ID: " + id);
+    }
+}
@@ -1,16 +1,20 @@
 package com.ayush.end_to_end.exception;
 
+/**
+ * Thrown for every lookup of a missing or inactive user and always answered with a 404, so
+ * it is created without a stack trace: clients probing unknown ids should not pay for one.
+ */
 public class UserNotFoundException extends RuntimeException {
     
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public UserNotFoundException(Long id) {
-        super("User not found with id: " + id);
+        this("User not found with id: " + id);
     }
     
     public UserNotFoundException(String field, String value) {
-        super("User not found with " + field + ": " + value);
+        this("User not found with " + field + ": " + value);
     }
-} 
\ No newline at end of file
+}
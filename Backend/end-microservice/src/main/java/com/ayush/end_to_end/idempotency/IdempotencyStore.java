@@ -0,0 +1,110 @@
+package com.ayush.end_to_end.idempotency;
+
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.entity.IdempotencyKey;
+import com.ayush.end_to_end.exception.IdempotencyKeyConflictException;
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.ayush.end_to_end.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Database-backed store for {@code Idempotency-Key} results of user creation. A key is
+ * recorded in the transaction that creates the user, so it exists exactly when the user
+ * does; keys older than {@code users.idempotency.ttl} are ignored and purged.
+ */
+@Component
+public class IdempotencyStore {
+    
+    public static final int MAX_KEY_LENGTH = 255;
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${users.idempotency.ttl:24h}")
+    private Duration ttl;
+    
+    public String requestHash(String key, UserDto request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not hash request for idempotency key " + key, ex);
+        }
+    }
+    
+    /**
+     * Returns the stored result for {@code key}, or empty when the key is unknown or expired.
+     * A key that was used for a different request body is rejected.
+     */
+    @Transactional
+    public Optional<UserDto> findResult(String key, String requestHash) {
+        Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(key);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        IdempotencyKey idempotencyKey = stored.get();
+        if (idempotencyKey.getCreatedAt().isBefore(LocalDateTime.now().minus(ttl))) {
+            // Expired but not purged yet; make room for the new request
+            idempotencyKeyRepository.delete(idempotencyKey);
+            idempotencyKeyRepository.flush();
+            return Optional.empty();
+        }
+        if (!idempotencyKey.getRequestHash().equals(requestHash)) {
+            log.info("Idempotency key reused with a different request: {}", key);
+            throw new IdempotencyKeyConflictException(key);
+        }
+        log.info("Replaying stored result for idempotency key: {}", key);
+        try {
+            return Optional.of(objectMapper.readValue(idempotencyKey.getResponseBody(), UserDto.class));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored result for idempotency key " + key + " is unreadable", ex);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String key, String requestHash, UserDto result) {
+        try {
+            // persist rather than save: the id is assigned, and save would merge (SELECT first)
+            entityManager.persist(new IdempotencyKey(key, requestHash,
+                    objectMapper.writeValueAsString(result), LocalDateTime.now()));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not store result for idempotency key " + key, ex);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${users.idempotency.purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        log.info("Purged {} expired idempotency keys", purged);
+    }
+}
@@ -0,0 +1,210 @@
+package com.ayush.end_to_end.index;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over normalized (trimmed, lower-cased) user emails, used to skip the
+ * existence query when an email has certainly never been seen. A positive answer only means
+ * "maybe", and the unique constraint on {@code users.email} stays the source of truth.
+ *
+ * Deleted and replaced emails are never removed, they merely become false positives until
+ * the next rebuild (see {@code EmailFilterMaintainer}), which also resizes the filter as the
+ * table grows. Until the first load completes every email is reported as a possible match.
+ */
+@Component
+public class EmailBloomFilter implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+    
+    @Value("${users.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${users.email-filter.min-expected-emails:100000}")
+    private long minExpectedEmails;
+    
+    private volatile BitArray current;
+    // Receives writes while a rebuild is scanning the table, so none are lost on the swap
+    private volatile BitArray building;
+    
+    private final LongAdder skippedChecks = new LongAdder();
+    private final LongAdder confirmedMatches = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    public boolean isReady() {
+        return current != null;
+    }
+    
+    /**
+     * True when the email was certainly never added, in which case the caller may skip the
+     * database check; the outcome is counted for the filter metrics.
+     */
+    public boolean definitelyAbsent(String email) {
+        BitArray bits = current;
+        if (bits == null || email == null || bits.mightContain(normalize(email))) {
+            return false;
+        }
+        skippedChecks.increment();
+        return true;
+    }
+    
+    /**
+     * Records what the database said for an email the filter could not rule out.
+     */
+    public void recordDatabaseCheck(boolean exists) {
+        if (exists) {
+            confirmedMatches.increment();
+        } else {
+            falsePositives.increment();
+        }
+    }
+    
+    public void put(String email) {
+        String normalized = normalize(email);
+        BitArray bits = current;
+        if (bits != null) {
+            bits.put(normalized);
+        }
+        BitArray next = building;
+        if (next != null) {
+            next.put(normalized);
+        }
+    }
+    
+    /**
+     * Replaces the filter with one sized for {@code expectedEmails} (with headroom for growth)
+     * and filled from {@code emails}. Lookups keep using the previous filter meanwhile.
+     */
+    public synchronized void rebuild(long expectedEmails, Stream<String> emails) {
+        BitArray next = new BitArray(Math.max(minExpectedEmails, expectedEmails * 2), falsePositiveRate);
+        building = next;
+        try {
+            emails.forEach(email -> next.put(normalize(email)));
+            current = next;
+        } finally {
+            building = null;
+        }
+        log.info("Email filter rebuilt - {} bits, {} hash functions, estimated false positive rate {}",
+                next.bitSize, next.numHashes, String.format("%.5f", next.estimatedFalsePositiveRate()));
+    }
+    
+    /**
+     * True once the filter holds noticeably more emails than it was sized for.
+     */
+    public boolean isOverfilled() {
+        BitArray bits = current;
+        return bits != null && bits.estimatedFalsePositiveRate() > 2 * falsePositiveRate;
+    }
+    
+    public double estimatedFalsePositiveRate() {
+        BitArray bits = current;
+        return bits != null ? bits.estimatedFalsePositiveRate() : 1.0;
+    }
+    
+    public long memoryBytes() {
+        BitArray bits = current;
+        return bits != null ? bits.bitSize / Byte.SIZE : 0;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.email.filter.false.positive.rate", this, EmailBloomFilter::estimatedFalsePositiveRate)
+                .description("False positive rate estimated from the fraction of set bits")
+                .register(registry);
+        Gauge.builder("users.email.filter.memory", this, EmailBloomFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("users.email.filter.checks", skippedChecks, LongAdder::sum)
+                .description("Email uniqueness checks by filter outcome")
+                .tag("result", "skipped")
+                .register(registry);
+        FunctionCounter.builder("users.email.filter.checks", confirmedMatches, LongAdder::sum)
+                .tag("result", "match")
+                .register(registry);
+        FunctionCounter.builder("users.email.filter.checks", falsePositives, LongAdder::sum)
+                .tag("result", "false_positive")
+                .register(registry);
+    }
+    
+    // Thread-safe bit set probed with double hashing (Kirsch-Mitzenmacher) over a 128-bit hash
+    private static final class BitArray {
+        
+        private final AtomicLongArray words;
+        private final long bitSize;
+        private final int numHashes;
+        private final AtomicLong setBits = new AtomicLong();
+        
+        BitArray(long expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + Long.SIZE - 1) / Long.SIZE);
+            this.words = new AtomicLongArray(wordCount);
+            this.bitSize = (long) wordCount * Long.SIZE;
+            this.numHashes = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        }
+        
+        boolean mightContain(String normalized) {
+            long hash1 = hash(normalized, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(normalized, 0xC2B2AE3D27D4EB4FL);
+            long combined = hash1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bitSize;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+                combined += hash2;
+            }
+            return true;
+        }
+        
+        void put(String normalized) {
+            long hash1 = hash(normalized, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(normalized, 0xC2B2AE3D27D4EB4FL);
+            long combined = hash1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bitSize;
+                long mask = 1L << bit;
+                int index = (int) (bit >>> 6);
+                long previous = words.getAndUpdate(index, word -> word | mask);
+                if ((previous & mask) == 0) {
+                    setBits.incrementAndGet();
+                }
+                combined += hash2;
+            }
+        }
+        
+        // A fraction f of set bits gives a false positive rate of about f^k
+        double estimatedFalsePositiveRate() {
+            return Math.pow((double) setBits.get() / bitSize, numHashes);
+        }
+        
+        private static long hash(String value, long seed) {
+            long h = seed;
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * 0x100000001B3L;
+            }
+            // murmur3 finalizer spreads the FNV-style state over all 64 bits
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ayush.end_to_end.index;
+
+import com.ayush.end_to_end.datasource.ReadRouting;
+import com.ayush.end_to_end.repository.ArchivedUserRepository;
+import com.ayush.end_to_end.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Loads the email filter once the application is up and rebuilds it periodically, which
+ * drops deleted emails, picks up writes made by other instances and resizes the filter.
+ */
+@Component
+public class EmailFilterMaintainer {
+    
+    private static final Logger log = LoggerFactory.getLogger(EmailFilterMaintainer.class);
+    
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ArchivedUserRepository archivedUserRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+    
+    @Scheduled(initialDelayString = "${users.email-filter.rebuild-interval:30m}",
+               fixedDelayString = "${users.email-filter.rebuild-interval:30m}")
+    public void rebuildPeriodically() {
+        rebuild();
+    }
+    
+    // Growth beyond the sized capacity raises the false positive rate, so resize early
+    @Scheduled(fixedDelayString = "${users.email-filter.overfill-check-interval:1m}")
+    public void rebuildIfOverfilled() {
+        if (emailBloomFilter.isOverfilled()) {
+            log.info("Email filter false positive rate is {} - rebuilding early", emailBloomFilter.estimatedFalsePositiveRate());
+            rebuild();
+        }
+    }
+    
+    public void rebuild() {
+        log.info("Rebuilding email filter");
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        // Read the primary: an email missing from a lagging replica would be reported as never seen
+        ReadRouting.onPrimary(() -> transactionTemplate.executeWithoutResult(status -> {
+            // Archived emails stay reserved, so they must not be ruled out either
+            long expected = userRepository.count() + archivedUserRepository.count();
+            try (Stream<String> emails = userRepository.streamAllEmails();
+                 Stream<String> archivedEmails = archivedUserRepository.streamAllEmails()) {
+                emailBloomFilter.rebuild(expected, Stream.concat(emails, archivedEmails));
+            }
+        }));
+        log.info("Email filter rebuilt in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
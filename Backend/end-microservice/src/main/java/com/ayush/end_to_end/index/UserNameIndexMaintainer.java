@@ -0,0 +1,60 @@
+package com.ayush.end_to_end.index;
+
+import com.ayush.end_to_end.datasource.ReadRouting;
+import com.ayush.end_to_end.dto.UserNameProjection;
+import com.ayush.end_to_end.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Loads the trigram index once the application is up and rebuilds it periodically to pick
+ * up writes made by other instances. Until the first load completes, searches use the database.
+ */
+@Component
+public class UserNameIndexMaintainer {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserNameIndexMaintainer.class);
+    
+    @Autowired
+    private UserNameTrigramIndex userNameTrigramIndex;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+    
+    @Scheduled(initialDelayString = "${users.search.index.rebuild-interval:10m}",
+               fixedDelayString = "${users.search.index.rebuild-interval:10m}")
+    public void rebuildPeriodically() {
+        rebuild();
+    }
+    
+    public void rebuild() {
+        log.info("Rebuilding user name trigram index");
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        // A lagging replica would leave recently created users out of the index until the next rebuild
+        ReadRouting.onPrimary(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<UserNameProjection> rows = userRepository.streamAllNames()) {
+                userNameTrigramIndex.rebuild(rows);
+            }
+        }));
+        log.info("User name trigram index rebuilt in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
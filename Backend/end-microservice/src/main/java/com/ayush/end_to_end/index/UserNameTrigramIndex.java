@@ -0,0 +1,302 @@
+package com.ayush.end_to_end.index;
+
+import com.ayush.end_to_end.dto.UserNameProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over first and last names. Each lower-cased trigram maps to a
+ * sorted list of user ids; a substring query is answered by intersecting the posting lists
+ * of its trigrams and then verifying the surviving candidates against the stored names.
+ *
+ * The index only sees writes made through this instance, so it is rebuilt from the
+ * database on startup and periodically (see {@code UserNameIndexMaintainer}).
+ */
+@Component
+public class UserNameTrigramIndex {
+    
+    public static final int GRAM_SIZE = 3;
+    
+    private static final Logger log = LoggerFactory.getLogger(UserNameTrigramIndex.class);
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private Map<String, PostingList> postings = new HashMap<>();
+    private Map<Long, IndexedName> names = new HashMap<>();
+    private boolean ready;
+    
+    // Writes that arrive while a rebuild is scanning the table are replayed on the new index
+    private List<Runnable> pendingDuringRebuild;
+    
+    public static boolean supports(String query) {
+        return query != null && query.trim().length() >= GRAM_SIZE;
+    }
+    
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Replaces the index contents with the given rows. The stream is consumed outside the
+     * lock so searches keep being served by the previous generation meanwhile.
+     */
+    public void rebuild(Stream<UserNameProjection> rows) {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Map<String, PostingList> newPostings = new HashMap<>();
+        Map<Long, IndexedName> newNames = new HashMap<>();
+        rows.forEach(row -> addTo(newPostings, newNames, row.id(), row.firstName(), row.lastName()));
+        
+        lock.writeLock().lock();
+        try {
+            Map<String, PostingList> oldPostings = postings;
+            Map<Long, IndexedName> oldNames = names;
+            postings = newPostings;
+            names = newNames;
+            pendingDuringRebuild.forEach(Runnable::run);
+            pendingDuringRebuild = null;
+            ready = true;
+            log.info("Trigram index rebuilt - {} users, {} trigrams (previously {} users, {} trigrams)",
+                    newNames.size(), newPostings.size(), oldNames.size(), oldPostings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void put(Long id, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            removeFrom(postings, names, id);
+            addTo(postings, names, id, firstName, lastName);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(() -> {
+                    removeFrom(postings, names, id);
+                    addTo(postings, names, id, firstName, lastName);
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeFrom(postings, names, id);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(() -> removeFrom(postings, names, id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ids of users whose first or last name contains {@code query}
+     * (case-insensitively), best match first: exact name, then prefix, then substring,
+     * shorter names before longer ones.
+     */
+    public List<Long> search(String query, int limit) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        Set<String> grams = trigrams(needle);
+        
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null || list.size == 0) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            // Intersect starting from the rarest trigram so the candidate set shrinks fastest
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            long[] candidates = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+            int candidateCount = candidates.length;
+            for (int i = 1; i < lists.size() && candidateCount > 0; i++) {
+                candidateCount = lists.get(i).retainAll(candidates, candidateCount);
+            }
+            
+            List<Match> matches = new ArrayList<>();
+            for (int i = 0; i < candidateCount; i++) {
+                IndexedName name = names.get(candidates[i]);
+                Match match = name != null ? name.match(candidates[i], needle) : null;
+                if (match != null) {
+                    matches.add(match);
+                }
+            }
+            matches.sort(Match.ORDER);
+            return matches.stream().limit(limit).map(Match::id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public static boolean matches(String query, String firstName, String lastName) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        return IndexedName.of(firstName, lastName).match(0L, needle) != null;
+    }
+    
+    private static void addTo(Map<String, PostingList> postings, Map<Long, IndexedName> names,
+                              Long id, String firstName, String lastName) {
+        IndexedName name = IndexedName.of(firstName, lastName);
+        names.put(id, name);
+        for (String gram : name.trigrams()) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(id);
+        }
+    }
+    
+    private static void removeFrom(Map<String, PostingList> postings, Map<Long, IndexedName> names, Long id) {
+        IndexedName name = names.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (String gram : name.trigrams()) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+    
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+    
+    private record IndexedName(String firstName, String lastName) {
+        
+        static IndexedName of(String firstName, String lastName) {
+            return new IndexedName(normalize(firstName), normalize(lastName));
+        }
+        
+        private static String normalize(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+        
+        Set<String> trigrams() {
+            Set<String> grams = UserNameTrigramIndex.trigrams(firstName);
+            grams.addAll(UserNameTrigramIndex.trigrams(lastName));
+            return grams;
+        }
+        
+        Match match(long id, String needle) {
+            Match first = Match.of(id, firstName, needle);
+            Match last = Match.of(id, lastName, needle);
+            if (first == null) {
+                return last;
+            }
+            return last == null || Match.ORDER.compare(first, last) <= 0 ? first : last;
+        }
+    }
+    
+    private record Match(long id, int rank, int length) {
+        
+        static final Comparator<Match> ORDER = Comparator.comparingInt(Match::rank)
+                .thenComparingInt(Match::length)
+                .thenComparingLong(Match::id);
+        
+        static Match of(long id, String name, String needle) {
+            int position = name.indexOf(needle);
+            if (position < 0) {
+                return null;
+            }
+            int rank = name.length() == needle.length() ? 0 : position == 0 ? 1 : 2;
+            return new Match(id, rank, name.length());
+        }
+    }
+    
+    /**
+     * Sorted, growable array of ids. New users get increasing ids and rebuilds scan in id
+     * order, so appends are the common case; updates of older users binary-search insert.
+     */
+    private static final class PostingList {
+        
+        private long[] ids = new long[4];
+        private int size;
+        
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            if (size == 0 || ids[size - 1] < id) {
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+        
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+        
+        // Keeps only the candidates also present in this list; both sides are sorted
+        int retainAll(long[] candidates, int candidateCount) {
+            int kept = 0;
+            int i = 0;
+            int j = 0;
+            while (i < candidateCount && j < size) {
+                if (candidates[i] == ids[j]) {
+                    candidates[kept++] = candidates[i];
+                    i++;
+                    j++;
+                } else if (candidates[i] < ids[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ayush.end_to_end.repository;
+
+import com.ayush.end_to_end.dto.DailyCountProjection;
+import com.ayush.end_to_end.dto.UserKeyProjection;
+import com.ayush.end_to_end.entity.ArchivedUser;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedUserRepository extends JpaRepository<ArchivedUser, Long> {
+    
+    // Moves are set-based: rows are copied by the database and the source chunk deleted by
+    // id, in the transaction that locked it
+    @Modifying
+    @Query("INSERT INTO ArchivedUser (id, firstName, lastName, email, phoneNumber, address, createdAt, updatedAt, archivedAt) "
+            + "SELECT u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.address, u.createdAt, u.updatedAt, :now "
+            + "FROM User u WHERE u.id IN :ids")
+    int archiveByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    // Restored users come back inactive. Rows whose email was taken since they were archived
+    // (possible for rows archived before emails stayed reserved) are skipped and stay in the
+    // archive.
+    @Modifying
+    @Query("INSERT INTO User (id, firstName, lastName, email, phoneNumber, address, createdAt, updatedAt, isActive) "
+            + "SELECT a.id, a.firstName, a.lastName, a.email, a.phoneNumber, a.address, a.createdAt, a.updatedAt, false "
+            + "FROM ArchivedUser a WHERE a.id IN :ids AND NOT EXISTS (SELECT u.id FROM User u WHERE u.email = a.email)")
+    int restoreByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Ids are never reused, so a live row with the same id means the user was restored
+    @Modifying
+    @Query("DELETE FROM ArchivedUser a WHERE a.id IN :ids AND EXISTS (SELECT u.id FROM User u WHERE u.id = a.id)")
+    int deleteRestoredByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM ArchivedUser a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Bulk activate and delete reach archived users through the same locked, chunked selection
+    // as live ones, so a concurrent restore cannot move a row out from under the statement
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.ayush.end_to_end.dto.UserKeyProjection(a.id, a.email, false, a.createdAt) FROM ArchivedUser a "
+            + "WHERE a.id IN :ids ORDER BY a.id")
+    List<UserKeyProjection> findUserKeysByIdInForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.ayush.end_to_end.dto.UserKeyProjection(a.id, a.email, false, a.createdAt) FROM ArchivedUser a "
+            + "WHERE a.updatedAt < :before AND a.id > :after ORDER BY a.id")
+    List<UserKeyProjection> findUserKeysByUpdatedBeforeForUpdate(@Param("before") LocalDateTime before,
+                                                                 @Param("after") Long after,
+                                                                 Limit limit);
+    
+    // Archived users keep their email reserved. The locking read sees rows archived after the
+    // caller's snapshot was taken, so a user archived concurrently is not missed.
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a FROM ArchivedUser a WHERE a.email IN :emails")
+    List<ArchivedUser> findByEmailInForShare(@Param("emails") Collection<String> emails);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + UserRepository.EXPORT_FETCH_SIZE))
+    @Query("SELECT a.email FROM ArchivedUser a")
+    Stream<String> streamAllEmails();
+    
+    @Query("SELECT new com.ayush.end_to_end.dto.DailyCountProjection(CAST(a.createdAt AS LocalDate), COUNT(a)) "
+            + "FROM ArchivedUser a WHERE a.createdAt >= :since GROUP BY CAST(a.createdAt AS LocalDate)")
+    List<DailyCountProjection> countCreatedPerDaySince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,79 @@
+package com.ayush.end_to_end.repository;
+
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserVersion;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking reads over R2DBC for the reactive API. Mirrors the DTO projections of
+ * {@link UserRepository}; writes stay on JPA.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+    
+    private static final String USER_DTO_SELECT = "SELECT id, first_name, last_name, email, phone_number, address, "
+            + "created_at, updated_at, is_active FROM users ";
+    
+    @Autowired
+    private DatabaseClient databaseClient;
+    
+    public Mono<UserDto> findActiveUserDtoById(Long id) {
+        return databaseClient.sql(USER_DTO_SELECT + "WHERE id = :id AND is_active = true")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUserDto)
+                .one();
+    }
+    
+    public Mono<UserVersion> findActiveUserVersionById(Long id) {
+        return databaseClient.sql("SELECT id, updated_at FROM users WHERE id = :id AND is_active = true")
+                .bind("id", id)
+                .map(row -> new UserVersion(row.get("id", Long.class), row.get("updated_at", LocalDateTime.class)))
+                .one();
+    }
+    
+    public Mono<UserDto> findActiveUserDtoByEmail(String email) {
+        return databaseClient.sql(USER_DTO_SELECT + "WHERE email = :email AND is_active = true")
+                .bind("email", email)
+                .map(ReactiveUserRepository::toUserDto)
+                .one();
+    }
+    
+    // Keyset pagination: seek past the last seen id instead of using OFFSET
+    public Flux<UserDto> findUserDtosAfter(long after, int limit) {
+        return databaseClient.sql(USER_DTO_SELECT + "WHERE id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUserDto)
+                .all();
+    }
+    
+    public Flux<UserDto> findActiveUserDtosAfter(long after, int limit) {
+        return databaseClient.sql(USER_DTO_SELECT + "WHERE is_active = true AND id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUserDto)
+                .all();
+    }
+    
+    private static UserDto toUserDto(Readable row) {
+        return new UserDto(
+                row.get("id", Long.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("email", String.class),
+                row.get("phone_number", String.class),
+                row.get("address", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("is_active", Boolean.class));
+    }
+}
@@ -1,16 +1,33 @@
 package com.ayush.end_to_end.repository;
 
+import com.ayush.end_to_end.dto.DailyCountProjection;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserKeyProjection;
+import com.ayush.end_to_end.dto.UserNameProjection;
+import com.ayush.end_to_end.dto.UserVersion;
 import com.ayush.end_to_end.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    
+    int EXPORT_FETCH_SIZE = 1000;
     
     Optional<User> findByEmail(String email);
     
@@ -18,13 +35,127 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     List<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName);
     
+    // Read-only projections: rows go straight into UserDto without creating managed
+    // entities (no persistence-context tracking, no dirty-checking snapshot, no UserMapper pass).
+    String USER_DTO_SELECT = "SELECT new com.ayush.end_to_end.dto.UserDto(u.id, u.firstName, u.lastName, u.email, "
+            + "u.phoneNumber, u.address, u.createdAt, u.updatedAt, u.isActive) FROM User u ";
+    
+    @Query(USER_DTO_SELECT + "WHERE u.id = :id AND u.isActive = true")
+    Optional<UserDto> findActiveUserDtoById(@Param("id") Long id);
+    
+    @Query(USER_DTO_SELECT + "WHERE u.email = :email AND u.isActive = true")
+    Optional<UserDto> findActiveUserDtoByEmail(@Param("email") String email);
+    
+    @Query(USER_DTO_SELECT + "ORDER BY u.id")
+    List<UserDto> findAllUserDtos();
+    
+    @Query(USER_DTO_SELECT + "WHERE u.isActive = true ORDER BY u.id")
+    List<UserDto> findActiveUserDtos();
+    
+    @Query(USER_DTO_SELECT + "WHERE u.id IN :ids")
+    List<UserDto> findUserDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(USER_DTO_SELECT + "WHERE u.id IN :ids AND u.isActive = true")
+    List<UserDto> findActiveUserDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(USER_DTO_SELECT + "WHERE u.email IN :emails AND u.isActive = true")
+    List<UserDto> findActiveUserDtosByEmailIn(@Param("emails") Collection<String> emails);
+    
+    // Keyset pagination: seek past the last seen id instead of using OFFSET
+    @Query(USER_DTO_SELECT + "WHERE u.id > :after ORDER BY u.id")
+    List<UserDto> findUserDtosAfter(@Param("after") Long after, Limit limit);
+    
+    @Query(USER_DTO_SELECT + "WHERE u.isActive = true AND u.id > :after ORDER BY u.id")
+    List<UserDto> findActiveUserDtosAfter(@Param("after") Long after, Limit limit);
+    
+    // Change feed: keyset over (updatedAt, id), served by idx_users_updated_at_id. Rows at or after
+    // :before are held back until transactions that started earlier have had time to commit.
+    @Query(USER_DTO_SELECT + "WHERE (u.updatedAt > :at OR (u.updatedAt = :at AND u.id > :id)) "
+            + "AND u.updatedAt < :before ORDER BY u.updatedAt, u.id")
+    List<UserDto> findUserDtosChangedAfter(@Param("at") LocalDateTime at,
+                                           @Param("id") Long id,
+                                           @Param("before") LocalDateTime before,
+                                           Limit limit);
+    
+    @Query(USER_DTO_SELECT + "WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()} "
+            + "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()} ORDER BY u.id")
+    List<UserDto> searchUserDtosByName(@Param("name") String name, Limit limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.ayush.end_to_end.dto.UserNameProjection(u.id, u.firstName, u.lastName) FROM User u ORDER BY u.id")
+    Stream<UserNameProjection> streamAllNames();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+    
+    // Streams the whole table through a server-side cursor; callers must consume it inside a
+    // read-only transaction and close it. EXPORT_FETCH_SIZE rows are buffered per round trip.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderedById();
+    
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.isActive = true")
     Optional<User> findActiveUserByEmail(@Param("email") String email);
     
     @Query("SELECT u FROM User u WHERE u.id = :id AND u.isActive = true")
     Optional<User> findActiveUserById(@Param("id") Long id);
     
+    // Conditional requests: the version alone answers If-None-Match / If-Modified-Since, and
+    // the row lock keeps an If-Match check valid until the update commits
+    @Query("SELECT new com.ayush.end_to_end.dto.UserVersion(u.id, u.updatedAt) FROM User u WHERE u.id = :id AND u.isActive = true")
+    Optional<UserVersion> findActiveUserVersionById(@Param("id") Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id AND u.isActive = true")
+    Optional<User> findActiveUserByIdForUpdate(@Param("id") Long id);
+    
+    // Stats reconciliation; the per-day counts only read the window, via idx_users_created_at
+    long countByIsActiveTrue();
+    
+    @Query("SELECT new com.ayush.end_to_end.dto.DailyCountProjection(CAST(u.createdAt AS LocalDate), COUNT(u)) "
+            + "FROM User u WHERE u.createdAt >= :since GROUP BY CAST(u.createdAt AS LocalDate)")
+    List<DailyCountProjection> countCreatedPerDaySince(@Param("since") LocalDateTime since);
+    
     boolean existsByEmail(String email);
     
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
     boolean existsByEmailAndIdNot(String email, Long id);
+    
+    // Set-based bulk operations: callers lock one chunk of keys, then update or delete it by
+    // id in the same short transaction. The lock keeps the selected rows matching the criteria,
+    // and their isActive current, until the statement has run. Bulk JPQL bypasses
+    // @UpdateTimestamp, so updatedAt is set here.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.ayush.end_to_end.dto.UserKeyProjection(u.id, u.email, u.isActive, u.createdAt) FROM User u "
+            + "WHERE u.id IN :ids ORDER BY u.id")
+    List<UserKeyProjection> findUserKeysByIdInForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.ayush.end_to_end.dto.UserKeyProjection(u.id, u.email, u.isActive, u.createdAt) FROM User u "
+            + "WHERE u.isActive = :active AND u.updatedAt < :before AND u.id > :after ORDER BY u.id")
+    List<UserKeyProjection> findUserKeysByActiveAndUpdatedBeforeForUpdate(@Param("active") boolean active,
+                                                                          @Param("before") LocalDateTime before,
+                                                                          @Param("after") Long after,
+                                                                          Limit limit);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.isActive = :active, u.updatedAt = :now WHERE u.id IN :ids AND u.isActive <> :active")
+    int updateActiveByIdIn(@Param("ids") Collection<Long> ids, @Param("active") boolean active, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Archiving: locks one chunk of long-inactive users until it has been moved, so an
+    // activation cannot slip in between the copy and the delete
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.isActive = false AND u.updatedAt < :before AND u.id > :after ORDER BY u.id")
+    List<Long> findIdsToArchiveForUpdate(@Param("before") LocalDateTime before, @Param("after") Long after, Limit limit);
 } 
\ No newline at end of file
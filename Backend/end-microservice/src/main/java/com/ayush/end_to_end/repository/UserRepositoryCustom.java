@@ -0,0 +1,22 @@
+package com.ayush.end_to_end.repository;
+
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Sparse-fieldset reads: the select list is built from the requested UserFields, so
+// columns nobody asked for are never read or transferred
+public interface UserRepositoryCustom {
+    
+    // Keyset page of users after the given id; limit < 0 reads every matching row
+    List<UserDto> findUserDtos(UserFields fields, boolean activeOnly, long after, int limit);
+    
+    // Same contract as findUserDtosChangedAfter(): keyset over (updatedAt, id), rows at or after before held back
+    List<UserDto> findUserDtosChangedAfter(UserFields fields, LocalDateTime at, long id, LocalDateTime before, int limit);
+    
+    // Same contract as streamAllOrderedById(): consume inside a read-only transaction and close
+    Stream<UserDto> streamUserDtos(UserFields fields);
+}
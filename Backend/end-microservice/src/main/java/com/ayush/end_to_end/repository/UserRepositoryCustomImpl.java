@@ -0,0 +1,87 @@
+package com.ayush.end_to_end.repository;
+
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<UserDto> findUserDtos(UserFields fields, boolean activeOnly, long after, int limit) {
+        TypedQuery<Tuple> query = entityManager.createQuery(select(fields)
+                        + "WHERE u.id > :after" + (activeOnly ? " AND u.isActive = true" : "") + " ORDER BY u.id", Tuple.class)
+                .setParameter("after", after);
+        if (limit >= 0) {
+            query.setMaxResults(limit);
+        }
+        Set<String> columns = fields.columns();
+        return query.getResultList().stream()
+                .map(row -> toUserDto(row, columns))
+                .toList();
+    }
+    
+    @Override
+    public List<UserDto> findUserDtosChangedAfter(UserFields fields, LocalDateTime at, long id, LocalDateTime before, int limit) {
+        Set<String> columns = fields.columns();
+        return entityManager.createQuery(select(fields)
+                        + "WHERE (u.updatedAt > :at OR (u.updatedAt = :at AND u.id > :id)) "
+                        + "AND u.updatedAt < :before ORDER BY u.updatedAt, u.id", Tuple.class)
+                .setParameter("at", at)
+                .setParameter("id", id)
+                .setParameter("before", before)
+                .setMaxResults(limit)
+                .getResultList().stream()
+                .map(row -> toUserDto(row, columns))
+                .toList();
+    }
+    
+    @Override
+    public Stream<UserDto> streamUserDtos(UserFields fields) {
+        Set<String> columns = fields.columns();
+        return entityManager.createQuery(select(fields) + "ORDER BY u.id", Tuple.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, UserRepository.EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(row -> toUserDto(row, columns));
+    }
+    
+    // Property names come from the UserFields whitelist, never from raw request input
+    private static String select(UserFields fields) {
+        return fields.columns().stream()
+                .map(name -> "u." + name + " AS " + name)
+                .collect(Collectors.joining(", ", "SELECT ", " FROM User u "));
+    }
+    
+    private static UserDto toUserDto(Tuple row, Set<String> columns) {
+        UserDto dto = new UserDto();
+        for (String column : columns) {
+            Object value = row.get(column);
+            switch (column) {
+                case "id" -> dto.setId((Long) value);
+                case "firstName" -> dto.setFirstName((String) value);
+                case "lastName" -> dto.setLastName((String) value);
+                case "email" -> dto.setEmail((String) value);
+                case "phoneNumber" -> dto.setPhoneNumber((String) value);
+                case "address" -> dto.setAddress((String) value);
+                case "createdAt" -> dto.setCreatedAt((LocalDateTime) value);
+                case "updatedAt" -> dto.setUpdatedAt((LocalDateTime) value);
+                case "isActive" -> dto.setIsActive((Boolean) value);
+                default -> throw new IllegalArgumentException("Unsupported user field: " + column);
+            }
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ayush.end_to_end.repository;
+
+import com.ayush.end_to_end.entity.UserTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+    
+    // Same keyset as UserRepository.findUserDtosChangedAfter, over (deleted_at, user_id)
+    @Query("SELECT t FROM UserTombstone t WHERE (t.deletedAt > :at OR (t.deletedAt = :at AND t.userId > :id)) "
+            + "AND t.deletedAt < :before ORDER BY t.deletedAt, t.userId")
+    List<UserTombstone> findDeletedAfter(@Param("at") LocalDateTime at,
+                                         @Param("id") Long id,
+                                         @Param("before") LocalDateTime before,
+                                         Limit limit);
+    
+    @Modifying
+    @Query("DELETE FROM UserTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
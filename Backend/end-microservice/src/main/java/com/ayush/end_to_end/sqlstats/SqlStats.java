@@ -0,0 +1,91 @@
+package com.ayush.end_to_end.sqlstats;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL statements and JDBC time of one unit of work on the current thread: an HTTP request
+ * (see {@link SqlStatsFilter}) or a block passed to {@link #measure}. Scopes nest, and an
+ * inner scope's statements also count towards the enclosing one. Statements are counted as
+ * Hibernate prepares them, so a JDBC batch counts once; work on other threads (async
+ * exports, reactive pipelines) is not attributed.
+ */
+public final class SqlStats {
+    
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+    
+    private final SqlStats parent;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int statements;
+    private long jdbcNanos;
+    private int maxRepeats;
+    private String mostRepeatedSql;
+    
+    private SqlStats(SqlStats parent) {
+        this.parent = parent;
+    }
+    
+    public static SqlStats start() {
+        SqlStats stats = new SqlStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    public static SqlStats measure(Runnable action) {
+        SqlStats stats = start();
+        try {
+            action.run();
+        } finally {
+            stats.stop();
+        }
+        return stats;
+    }
+    
+    public void stop() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+    
+    static void recordStatement(String sql) {
+        for (SqlStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+            int executions = stats.executionsBySql.merge(sql, 1, Integer::sum);
+            if (executions > stats.maxRepeats) {
+                stats.maxRepeats = executions;
+                stats.mostRepeatedSql = sql;
+            }
+        }
+    }
+    
+    static void recordJdbcTime(long nanos) {
+        for (SqlStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.jdbcNanos += nanos;
+        }
+    }
+    
+    public int getStatements() {
+        return statements;
+    }
+    
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+    
+    // How often the most frequent statement ran; a value growing with the result size is an N+1
+    public int getMaxRepeats() {
+        return maxRepeats;
+    }
+    
+    public String getMostRepeatedSql() {
+        return mostRepeatedSql;
+    }
+    
+    @Override
+    public String toString() {
+        return statements + " statements, " + jdbcNanos / 1_000 + "us JDBC time, max repeats " + maxRepeats
+                + (mostRepeatedSql != null ? " (" + mostRepeatedSql + ")" : "");
+    }
+}
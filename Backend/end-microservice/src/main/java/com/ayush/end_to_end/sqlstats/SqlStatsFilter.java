@@ -0,0 +1,135 @@
+package com.ayush.end_to_end.sqlstats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements and JDBC time of every HTTP request. Each request records
+ * {@code sql.request.statements} and {@code sql.request.jdbc.time}, tagged like
+ * {@code http.server.requests} with the method and URI template. A request that runs the same
+ * statement {@code users.sql-stats.repeat-threshold} times or more is counted in
+ * {@code sql.request.repeated} and logged as a likely N+1. With
+ * {@code users.sql-stats.response-header=true} (for non-production use) the counts are also
+ * returned as {@code X-SQL-Statements} and {@code Server-Timing} headers.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SqlStatsFilter extends OncePerRequestFilter {
+    
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+    
+    private static final Logger log = LoggerFactory.getLogger(SqlStatsFilter.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${users.sql-stats.response-header:false}")
+    private boolean responseHeader;
+    
+    @Value("${users.sql-stats.repeat-threshold:10}")
+    private int repeatThreshold;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStats stats = SqlStats.start();
+        StatsHeaderResponse headerResponse = responseHeader ? new StatsHeaderResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, headerResponse != null ? headerResponse : response);
+        } finally {
+            stats.stop();
+            if (headerResponse != null) {
+                headerResponse.writeHeaders();
+            }
+            record(request, stats);
+        }
+    }
+    
+    private void record(HttpServletRequest request, SqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        DistributionSummary.builder("sql.request.statements")
+                .description("SQL statements per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("sql.request.jdbc.time")
+                .description("JDBC execution time per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        if (stats.getMaxRepeats() >= repeatThreshold) {
+            Counter.builder("sql.request.repeated")
+                    .description("HTTP requests that ran one statement repeatedly (likely N+1)")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.info("Likely N+1 in {} {}: same statement ran {} times - {}",
+                    method, uri, stats.getMaxRepeats(), stats.getMostRepeatedSql());
+        }
+    }
+    
+    // Headers must go out before the body commits the response, so they are written when the
+    // body is first requested: by then the handler has done its queries
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+        
+        private final SqlStats stats;
+        private boolean headersWritten;
+        
+        StatsHeaderResponse(HttpServletResponse response, SqlStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+        
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            addHeader(SERVER_TIMING_HEADER, String.format(Locale.ROOT, "sql;dur=%.3f;desc=\"%d statements\"",
+                    stats.getJdbcNanos() / 1_000_000.0, stats.getStatements()));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ayush.end_to_end.sqlstats;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time spent executing statements and batches to the current {@link SqlStats}
+ * scope. Hibernate creates one per session ({@code hibernate.session.events.auto}), and a
+ * session is only used by one thread at a time.
+ */
+public class SqlStatsSessionListener implements SessionEventListener {
+    
+    private long executionStart;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStats.recordJdbcTime(System.nanoTime() - executionStart);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStats.recordJdbcTime(System.nanoTime() - executionStart);
+    }
+}
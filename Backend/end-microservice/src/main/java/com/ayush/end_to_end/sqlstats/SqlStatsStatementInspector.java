@@ -0,0 +1,16 @@
+package com.ayush.end_to_end.sqlstats;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares towards the current {@link SqlStats} scope.
+ * Registered with {@code hibernate.session_factory.statement_inspector}.
+ */
+public class SqlStatsStatementInspector implements StatementInspector {
+    
+    @Override
+    public String inspect(String sql) {
+        SqlStats.recordStatement(sql);
+        return sql;
+    }
+}
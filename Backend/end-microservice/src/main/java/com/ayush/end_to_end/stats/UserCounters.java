@@ -0,0 +1,168 @@
+package com.ayush.end_to_end.stats;
+
+import com.ayush.end_to_end.dto.UserStats;
+import com.ayush.end_to_end.util.AfterCommit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Materialized user counts, so stats reads are O(1) whatever the table size. Write paths
+ * report what they changed and the counters apply it once the transaction commits.
+ *
+ * Writes made by other instances, and anything a write path could not attribute exactly,
+ * are only picked up when {@link UserCountersMaintainer} replaces the counts with COUNT(*)
+ * results. Deltas applied while its queries run are kept aside and replayed on top of them.
+ */
+@Component
+public class UserCounters implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserCounters.class);
+    
+    private final int createdDays;
+    private final LongAdder corrections = new LongAdder();
+    
+    private Counts counts = new Counts();
+    // Receives deltas while a reconciliation is counting
+    private Counts pending;
+    private LocalDateTime reconciledAt;
+    
+    public UserCounters(@Value("${users.stats.created-days:30}") int createdDays) {
+        this.createdDays = createdDays;
+    }
+    
+    public void recordCreated(LocalDateTime createdAt) {
+        applyAfterCommit(1, 1, createdAt);
+    }
+    
+    public void recordDeleted(boolean active, LocalDateTime createdAt) {
+        applyAfterCommit(-1, active ? -1 : 0, createdAt);
+    }
+    
+    public void recordActivated(int users) {
+        applyAfterCommit(0, users, null);
+    }
+    
+    public void recordDeactivated(int users) {
+        applyAfterCommit(0, -users, null);
+    }
+    
+    public synchronized boolean isReady() {
+        return reconciledAt != null;
+    }
+    
+    public synchronized UserStats snapshot() {
+        Map<LocalDate, Long> createdPerDay = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = firstDay(); !day.isAfter(today); day = day.plusDays(1)) {
+            createdPerDay.put(day, counts.createdPerDay.getOrDefault(day, 0L));
+        }
+        return new UserStats(counts.total, counts.active, counts.total - counts.active, createdPerDay, reconciledAt);
+    }
+    
+    public synchronized long getTotal() {
+        return counts.total;
+    }
+    
+    public synchronized long getActive() {
+        return counts.active;
+    }
+    
+    public synchronized long getInactive() {
+        return counts.total - counts.active;
+    }
+    
+    // Start of the created-per-day window, the lower bound for the reconciliation query
+    public LocalDateTime createdSince() {
+        return firstDay().atStartOfDay();
+    }
+    
+    synchronized void beginReconciliation() {
+        pending = new Counts();
+    }
+    
+    synchronized void finishReconciliation(long total, long active, Map<LocalDate, Long> createdPerDay) {
+        Counts counted = new Counts();
+        counted.total = total;
+        counted.active = active;
+        counted.createdPerDay.putAll(createdPerDay);
+        counted.add(pending);
+        long drift = Math.abs(counted.total - counts.total) + Math.abs(counted.active - counts.active);
+        if (reconciledAt != null && drift > 0) {
+            log.info("User counters corrected - total: {} -> {}, active: {} -> {}",
+                    counts.total, counted.total, counts.active, counted.active);
+            corrections.add(drift);
+        }
+        counts = counted;
+        pending = null;
+        reconciledAt = LocalDateTime.now();
+    }
+    
+    synchronized void cancelReconciliation() {
+        pending = null;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.count", this, UserCounters::getActive)
+                .description("Users by state, from the materialized counters")
+                .tag("state", "active")
+                .register(registry);
+        Gauge.builder("users.count", this, UserCounters::getInactive)
+                .tag("state", "inactive")
+                .register(registry);
+        FunctionCounter.builder("users.stats.corrections", corrections, LongAdder::sum)
+                .description("Difference between the counters and COUNT(*) found by reconciliation")
+                .register(registry);
+    }
+    
+    // A rolled-back write must not move the counts
+    private void applyAfterCommit(long total, long active, LocalDateTime createdAt) {
+        AfterCommit.run(() -> apply(total, active, createdAt));
+    }
+    
+    private synchronized void apply(long total, long active, LocalDateTime createdAt) {
+        LocalDate day = createdAt == null || createdAt.toLocalDate().isBefore(firstDay()) ? null : createdAt.toLocalDate();
+        counts.add(total, active, day);
+        if (pending != null) {
+            pending.add(total, active, day);
+        }
+    }
+    
+    private LocalDate firstDay() {
+        return LocalDate.now().minusDays(createdDays - 1);
+    }
+    
+    private static class Counts {
+        
+        private long total;
+        private long active;
+        private final Map<LocalDate, Long> createdPerDay = new HashMap<>();
+        
+        void add(long total, long active, LocalDate day) {
+            this.total += total;
+            this.active += active;
+            if (day != null && total != 0) {
+                createdPerDay.merge(day, total, Long::sum);
+            }
+        }
+        
+        void add(Counts other) {
+            total += other.total;
+            active += other.active;
+            other.createdPerDay.forEach((day, count) -> createdPerDay.merge(day, count, Long::sum));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ayush.end_to_end.stats;
+
+import com.ayush.end_to_end.datasource.ReadRouting;
+import com.ayush.end_to_end.dto.DailyCountProjection;
+import com.ayush.end_to_end.repository.ArchivedUserRepository;
+import com.ayush.end_to_end.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Counts users once the application is up and reconciles the counters with COUNT(*) queries
+ * periodically, which picks up writes made by other instances and corrects any drift.
+ */
+@Component
+public class UserCountersMaintainer {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserCountersMaintainer.class);
+    
+    @Autowired
+    private UserCounters userCounters;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ArchivedUserRepository archivedUserRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+    
+    @Scheduled(initialDelayString = "${users.stats.reconcile-interval:10m}",
+               fixedDelayString = "${users.stats.reconcile-interval:10m}")
+    public void reconcilePeriodically() {
+        reconcile();
+    }
+    
+    public synchronized void reconcile() {
+        log.info("Reconciling user counters");
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        LocalDateTime since = userCounters.createdSince();
+        // Writes that commit from here on are replayed on top of the counts below. One that
+        // commits before the transaction's snapshot is counted twice until the next pass.
+        userCounters.beginReconciliation();
+        try {
+            // The counts replace the live ones, so a lagging replica would roll them back
+            ReadRouting.onPrimary(() -> transactionTemplate.executeWithoutResult(status -> {
+                // Archived users are inactive users that live in another table
+                long total = userRepository.count() + archivedUserRepository.count();
+                long active = userRepository.countByIsActiveTrue();
+                Map<LocalDate, Long> createdPerDay = Stream.concat(
+                                userRepository.countCreatedPerDaySince(since).stream(),
+                                archivedUserRepository.countCreatedPerDaySince(since).stream())
+                        .collect(Collectors.toMap(DailyCountProjection::day, DailyCountProjection::count, Long::sum));
+                userCounters.finishReconciliation(total, active, createdPerDay);
+            }));
+        } catch (RuntimeException ex) {
+            userCounters.cancelReconciliation();
+            throw ex;
+        }
+        log.info("User counters reconciled in {} ms - total: {}, active: {}",
+                (System.nanoTime() - start) / 1_000_000, userCounters.getTotal(), userCounters.getActive());
+    }
+}
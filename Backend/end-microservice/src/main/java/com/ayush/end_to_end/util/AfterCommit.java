@@ -0,0 +1,26 @@
+package com.ayush.end_to_end.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers side effects on in-memory state (caches, indexes) until the surrounding
+ * transaction has committed, so a rollback never leaves them ahead of the database.
+ */
+public final class AfterCommit {
+    
+    private AfterCommit() {}
+    
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.ayush.end_to_end.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which database constraint a {@link DataIntegrityViolationException} came from.
+ * Drivers qualify the name differently (MySQL reports {@code users.uk_users_email}, H2
+ * {@code PUBLIC.UK_USERS_EMAIL_INDEX_4}), so names are matched case-insensitively by containment.
+ */
+public final class ConstraintViolations {
+    
+    private ConstraintViolations() {}
+    
+    public static boolean isViolationOf(DataIntegrityViolationException ex, String constraintName) {
+        String expected = constraintName.toLowerCase(Locale.ROOT);
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(expected);
+            }
+        }
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(expected);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ayush.end_to_end.util;
+
+import com.ayush.end_to_end.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursors so clients cannot build
+ * (or depend on) OFFSET-style page tokens.
+ */
+public final class CursorCodec {
+    
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+    
+    private CursorCodec() {}
+    
+    public static String encode(String... parts) {
+        String raw = VERSION + SEPARATOR + String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static String[] decode(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != expectedParts + 1 || !VERSION.equals(parts[0])) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+        String[] values = new String[expectedParts];
+        System.arraycopy(parts, 1, values, 0, expectedParts);
+        return values;
+    }
+    
+    public static String encodeId(Long id) {
+        return encode(String.valueOf(id));
+    }
+    
+    public static Long decodeId(String cursor) {
+        String value = decode(cursor, 1)[0];
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ayush.end_to_end.util;
+
+import com.ayush.end_to_end.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fails startup when duplicate emails would not be recognized. {@link ConstraintViolations}
+ * tells them apart by the name of the unique index on {@code users.email}; on a database
+ * created before the index was named it still has a generated name (next to the named one
+ * once Hibernate has updated the schema), and a duplicate create would surface as a 500
+ * instead of a 409. Runs after the schema update and before the web server starts.
+ */
+@Component
+public class EmailConstraintVerifier implements SmartInitializingSingleton {
+    
+    private static final Logger log = LoggerFactory.getLogger(EmailConstraintVerifier.class);
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> emailIndexes;
+        try (Connection connection = dataSource.getConnection()) {
+            emailIndexes = uniqueIndexesOn(connection, "users", "email");
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not read the unique indexes of the users table", ex);
+        }
+        String expected = User.EMAIL_UNIQUE_CONSTRAINT.toLowerCase(Locale.ROOT);
+        List<String> unnamed = emailIndexes.stream()
+                .filter(name -> !name.toLowerCase(Locale.ROOT).contains(expected))
+                .toList();
+        if (emailIndexes.isEmpty() || !unnamed.isEmpty()) {
+            throw new IllegalStateException("users.email must have exactly one unique index, named "
+                    + User.EMAIL_UNIQUE_CONSTRAINT + ", but has " + emailIndexes
+                    + "; rename the existing index and drop duplicates (see the README, Database Schema)");
+        }
+        log.info("Duplicate emails are reported by unique index {}", emailIndexes.get(0));
+    }
+    
+    // Unique indexes covering exactly the given column; the primary key never qualifies
+    private static List<String> uniqueIndexesOn(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), tableName, true, true)) {
+            while (rows.next()) {
+                String indexName = rows.getString("INDEX_NAME");
+                String columnName = rows.getString("COLUMN_NAME");
+                if (indexName != null && columnName != null) {
+                    columnsByIndex.computeIfAbsent(indexName, name -> new ArrayList<>()).add(columnName);
+                }
+            }
+        }
+        return columnsByIndex.entrySet().stream()
+                .filter(index -> index.getValue().size() == 1 && index.getValue().get(0).equalsIgnoreCase(column))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
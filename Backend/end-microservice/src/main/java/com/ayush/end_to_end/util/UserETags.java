@@ -0,0 +1,112 @@
+package com.ayush.end_to_end.util;
+
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.ayush.end_to_end.dto.UserVersion;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+
+/**
+ * Validators for user representations. Every write path bumps {@code updatedAt},
+ * so a single user's ETag is just its id and timestamp and can be checked without
+ * loading the row. Timestamps are truncated to the microseconds the column stores, so
+ * a freshly written entity and the same row read back produce the same tag.
+ *
+ * The tags are strong, so each representation of a user gets its own: the full JSON
+ * representation carries the plain version tag, CBOR, Smile and {@code fields=} selections
+ * append a suffix naming the format and the selected fields.
+ */
+public final class UserETags {
+    
+    private UserETags() {}
+    
+    public static String of(Long id, LocalDateTime updatedAt) {
+        return "\"" + id + "-" + Long.toHexString(epochMicros(updatedAt)) + "\"";
+    }
+    
+    public static String of(UserVersion version) {
+        return of(version.id(), version.updatedAt());
+    }
+    
+    public static String of(UserDto user) {
+        return of(user.getId(), user.getUpdatedAt());
+    }
+    
+    public static String of(UserVersion version, MediaType format, UserFields fields) {
+        return of(version.id(), version.updatedAt(), format, fields);
+    }
+    
+    public static String of(UserDto user, MediaType format, UserFields fields) {
+        return of(user.getId(), user.getUpdatedAt(), format, fields);
+    }
+    
+    // e.g. "42-5f1d3c2a9b000-cbor-f8" for CBOR with fields=email
+    public static String of(Long id, LocalDateTime updatedAt, MediaType format, UserFields fields) {
+        String tag = of(id, updatedAt);
+        if (!MediaType.APPLICATION_JSON.equalsTypeAndSubtype(format)) {
+            tag = tag.substring(0, tag.length() - 1) + "-" + format.getSubtype().replace("x-jackson-", "") + "\"";
+        }
+        if (!fields.isAll()) {
+            int mask = 0;
+            for (String name : fields.names()) {
+                mask |= 1 << UserFields.NAMES.indexOf(name);
+            }
+            tag = tag.substring(0, tag.length() - 1) + "-f" + Integer.toHexString(mask) + "\"";
+        }
+        return tag;
+    }
+    
+    // Changes whenever a user on the page changes, or rows enter or leave it. The tag is weak:
+    // it only serves If-None-Match, and the same page may be sent gzipped, as Smile/CBOR or
+    // narrowed by fields=, none of which a strong tag may span (Tomcat also won't compress them)
+    public static String of(CursorPage<UserDto> page) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (UserDto user : page.getItems()) {
+                digest.update((user.getId() + ":" + epochMicros(user.getUpdatedAt()) + ";").getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(String.valueOf(page.getNextCursor()).getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+    
+    // Epoch millis for Last-Modified, or -1 (no header) when the row was never timestamped
+    public static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Evaluates an {@code If-Match} header against the current version tag with the strong
+     * comparison RFC 9110 requires: {@code *} and the tag of any representation of the
+     * current version match, weak tags never do.
+     */
+    public static boolean matches(String ifMatch, String etag) {
+        String representationPrefix = etag.substring(0, etag.length() - 1) + "-";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || (tag.startsWith(representationPrefix) && tag.endsWith("\""))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static long epochMicros(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return 0;
+        }
+        LocalDateTime truncated = updatedAt.truncatedTo(ChronoUnit.MICROS);
+        return truncated.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + truncated.getNano() / 1_000;
+    }
+}
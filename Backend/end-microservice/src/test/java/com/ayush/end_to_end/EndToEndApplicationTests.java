@@ -1,21 +1,113 @@
 package com.ayush.end_to_end;
 
+import com.ayush.end_to_end.archive.UserArchiver;
+import com.ayush.end_to_end.cache.SingleFlight;
+import com.ayush.end_to_end.datasource.ConcurrencyLimitingDataSource;
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkItemStatus;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
+import com.ayush.end_to_end.dto.UserChangeType;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.ayush.end_to_end.dto.UserStats;
 import com.ayush.end_to_end.entity.User;
+import com.ayush.end_to_end.exception.ChangeCursorExpiredException;
+import com.ayush.end_to_end.exception.IdempotencyKeyConflictException;
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.ayush.end_to_end.exception.LookupTimeoutException;
+import com.ayush.end_to_end.exception.PreconditionFailedException;
+import com.ayush.end_to_end.exception.UserAlreadyExistsException;
+import com.ayush.end_to_end.exception.UserNotFoundException;
+import com.ayush.end_to_end.index.EmailBloomFilter;
+import com.ayush.end_to_end.repository.ArchivedUserRepository;
 import com.ayush.end_to_end.repository.UserRepository;
+import com.ayush.end_to_end.sqlstats.SqlStats;
+import com.ayush.end_to_end.sqlstats.SqlStatsFilter;
+import com.ayush.end_to_end.stats.UserCountersMaintainer;
+import com.ayush.end_to_end.util.CursorCodec;
+import com.ayush.end_to_end.util.EmailConstraintVerifier;
+import com.ayush.end_to_end.util.UserETags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import service.UserService;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.hasItem;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 class EndToEndApplicationTests {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    private UserCountersMaintainer userCountersMaintainer;
+
+    @Autowired
+    private UserArchiver userArchiver;
+
+    @Autowired
+    private ArchivedUserRepository archivedUserRepository;
+
+    @Autowired
+    private EmailConstraintVerifier emailConstraintVerifier;
+
+    @Autowired
+    private MockMvc mockMvc;
+
     @Test
     void contextLoads() {
         // Test that the application context loads successfully
@@ -55,4 +147,849 @@ class EndToEndApplicationTests {
         // This test verifies that the entity is properly configured
         assertNotNull(user);
     }
+
+    @Test
+    void testKeysetPagination() {
+        // Create a handful of users to page through
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(userRepository.save(newUser("Page", "User", "page" + i + "@example.com")));
+        }
+
+        // Walk the pages with a small limit and collect every id
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<UserDto> page = userService.getUsersPage(cursor, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(user -> seen.add(user.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Every created user is returned exactly once, in id order
+        for (User user : created) {
+            assertEquals(1, seen.stream().filter(user.getId()::equals).count());
+        }
+        assertEquals(seen.stream().sorted().toList(), seen);
+
+        // Oversized pages and unpaged listing are rejected by default
+        assertThrows(InvalidRequestException.class, () -> userService.getUsersPage(null, 100_000));
+        assertThrows(InvalidRequestException.class, () -> userService.getAllUsers());
+        assertThrows(InvalidRequestException.class, () -> userService.getUsersPage("not-a-cursor", 2));
+
+        // Clean up
+        userRepository.deleteAll(created);
+    }
+
+    @Test
+    void testUserExportStreamsEveryRow() {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(userRepository.save(newUser("Export", "User", "export" + i + "@example.com")));
+        }
+
+        // Export hands every row to the consumer in id order
+        List<Long> exportedIds = new ArrayList<>();
+        long exported = userService.exportUsers(user -> exportedIds.add(user.getId()));
+        assertEquals(userRepository.count(), exported);
+        assertEquals(exportedIds.stream().sorted().toList(), exportedIds);
+
+        // Clean up
+        userRepository.deleteAll(created);
+    }
+
+    @Test
+    void testBulkUserCreation() {
+        userRepository.save(newUser("Existing", "User", "bulk-existing@example.com"));
+
+        List<UserDto> batch = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            batch.add(newUserDto("Bulk", "User", "bulk" + i + "@example.com"));
+        }
+        batch.add(newUserDto("Existing", "User", "bulk-existing@example.com"));
+        batch.add(newUserDto("Duplicate", "User", "bulk0@example.com"));
+        batch.add(newUserDto("X", "User", "not-an-email"));
+
+        BulkCreateResult result = userService.createUsers(batch.iterator());
+
+        // Every item is reported, in request order, without aborting the batch
+        assertEquals(120, result.getCreated());
+        assertEquals(2, result.getConflicts());
+        assertEquals(1, result.getInvalid());
+        assertEquals(batch.size(), result.getItems().size());
+        assertEquals(BulkItemStatus.CREATED, result.getItems().get(0).getStatus());
+        assertNotNull(result.getItems().get(0).getId());
+        assertEquals(BulkItemStatus.CONFLICT, result.getItems().get(120).getStatus());
+        assertEquals(BulkItemStatus.CONFLICT, result.getItems().get(121).getStatus());
+        assertEquals(BulkItemStatus.INVALID, result.getItems().get(122).getStatus());
+        assertTrue(userRepository.existsByEmail("bulk119@example.com"));
+
+        // Emails differing only in case are the same email, as for the column collation
+        BulkCreateResult mixedCase = userService.createUsers(List.of(
+                newUserDto("Mixed", "Case", "bulk-Mixed@example.com"),
+                newUserDto("Mixed", "Case", "bulk-mixed@example.com")).iterator());
+        assertEquals(1, mixedCase.getCreated());
+        assertEquals(BulkItemStatus.CREATED, mixedCase.getItems().get(0).getStatus());
+        assertEquals(BulkItemStatus.CONFLICT, mixedCase.getItems().get(1).getStatus());
+
+        // Clean up
+        userRepository.deleteAll(userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("bulk"))
+                .toList());
+    }
+
+    @Test
+    void testLookupCacheFollowsWrites() {
+        UserDto created = userService.createUser(newUserDto("Cache", "User", "cache-old@example.com"));
+
+        // Warm both cache keys
+        assertEquals(created.getId(), userService.getUserById(created.getId()).getId());
+        assertEquals(created.getId(), userService.getUserByEmail("cache-old@example.com").getId());
+
+        // Changing the email drops the old key and serves the new one
+        UserDto update = newUserDto("Cache", "Renamed", "cache-new@example.com");
+        userService.updateUser(created.getId(), update);
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("cache-old@example.com"));
+        assertEquals("Renamed", userService.getUserByEmail("cache-new@example.com").getLastName());
+        assertEquals("Renamed", userService.getUserById(created.getId()).getLastName());
+
+        // Deactivation hides the user from cached lookups
+        userService.deactivateUser(created.getId());
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(created.getId()));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("cache-new@example.com"));
+
+        // Clean up
+        userService.deleteUser(created.getId());
+    }
+
+    @Test
+    void testTrigramNameSearch() {
+        UserDto exact = userService.createUser(newUserDto("Zoltan", "Kovacs", "zoltan@example.com"));
+        UserDto prefix = userService.createUser(newUserDto("Zoltanne", "Smith", "zoltanne@example.com"));
+        UserDto substring = userService.createUser(newUserDto("Anna", "Mezoltanyi", "anna@example.com"));
+
+        // Ranked: exact name, then prefix, then substring
+        List<Long> ids = userService.searchUsersByName("ZOLTAN", 10).stream().map(UserDto::getId).toList();
+        assertEquals(List.of(exact.getId(), prefix.getId(), substring.getId()), ids);
+        assertEquals(1, userService.searchUsersByName("zoltan", 1).size());
+
+        // Renames and deletes are reflected without a rebuild
+        userService.updateUser(prefix.getId(), newUserDto("Bela", "Smith", "zoltanne@example.com"));
+        userService.deleteUser(substring.getId());
+        ids = userService.searchUsersByName("oltan", 10).stream().map(UserDto::getId).toList();
+        assertEquals(List.of(exact.getId()), ids);
+
+        // Short queries fall back to the database
+        assertFalse(userService.searchUsersByName("Zo", 10).isEmpty());
+
+        // Clean up
+        userService.deleteUser(exact.getId());
+        userService.deleteUser(prefix.getId());
+    }
+
+    @Test
+    void testDbConcurrencyLimiter() throws SQLException {
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(dataSource, 1, Duration.ofMillis(50));
+
+        Connection first = limited.getConnection();
+        assertEquals(0, limited.getAvailablePermits());
+
+        // The only permit is taken, so the next caller times out
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+
+        // Closing releases the permit exactly once
+        first.close();
+        first.close();
+        assertEquals(1, limited.getAvailablePermits());
+
+        try (Connection second = limited.getConnection()) {
+            assertTrue(second.isValid(1));
+        }
+        assertEquals(1, limited.getAvailablePermits());
+    }
+
+    @Test
+    void testServiceRepositoryAndHibernateMetrics() {
+        UserDto created = userService.createUser(newUserDto("Metra", "Timer", "metra.timer@example.com"));
+        userService.searchUsersByName("Metra", 10);
+
+        // One timer per service method, tagged by method name only
+        assertNotNull(meterRegistry.find("users.service").tag("method", "createUser").timer());
+        assertTrue(meterRegistry.get("users.service").tag("method", "searchUsersByName").timer().count() > 0);
+
+        // One timer per repository query method
+        assertNotNull(meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "UserRepository").tag("method", "saveAndFlush").timer());
+
+        // Hibernate statistics and the Hikari pool
+        assertNotNull(meterRegistry.find("hibernate.statements").functionCounter());
+        assertNotNull(meterRegistry.find("hibernate.flushes").functionCounter());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+
+        // Clean up
+        userService.deleteUser(created.getId());
+    }
+
+    @Test
+    void testEmailFilterSkipsChecksForNewEmails() {
+        assertTrue(emailBloomFilter.isReady());
+        UserDto created = userService.createUser(newUserDto("Bloom", "Filter", "bloom.filter@example.com"));
+
+        // Changing to a never-seen email skips the existence query
+        double skippedBefore = meterRegistry.get("users.email.filter.checks").tag("result", "skipped").functionCounter().count();
+        userService.updateUser(created.getId(), newUserDto("Bloom", "Filter", "bloom.renamed@example.com"));
+        assertTrue(meterRegistry.get("users.email.filter.checks").tag("result", "skipped").functionCounter().count() > skippedBefore);
+
+        // Known emails (in any case) are possible matches and go to the database
+        UserDto other = userService.createUser(newUserDto("Bloom", "Other", "bloom.other@example.com"));
+        assertFalse(emailBloomFilter.definitelyAbsent("Bloom.Renamed@Example.com"));
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.updateUser(other.getId(), newUserDto("Bloom", "Other", "bloom.renamed@example.com")));
+
+        // A row the filter has never seen is still caught by the unique constraint
+        User unseen = userRepository.save(newUser("Unseen", "Row", "unseen.row@example.com"));
+        assertTrue(emailBloomFilter.definitelyAbsent("unseen.row@example.com"));
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.updateUser(other.getId(), newUserDto("Bloom", "Other", "unseen.row@example.com")));
+
+        // Clean up
+        userService.deleteUser(created.getId());
+        userService.deleteUser(other.getId());
+        userRepository.delete(unseen);
+    }
+
+    @Test
+    void testIdempotentCreate() {
+        UserDto request = newUserDto("Idem", "Potent", "idem.potent@example.com");
+        UserDto created = userService.createUser(request, "create-idem-1");
+
+        // A retry with the same key replays the original result instead of conflicting
+        UserDto replayed = userService.createUser(newUserDto("Idem", "Potent", "idem.potent@example.com"), "create-idem-1");
+        assertEquals(created.getId(), replayed.getId());
+        assertEquals(created.getCreatedAt(), replayed.getCreatedAt());
+
+        // The same key with a different body is rejected, a new key hits the unique constraint
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> userService.createUser(newUserDto("Idem", "Other", "idem.other@example.com"), "create-idem-1"));
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.createUser(newUserDto("Idem", "Potent", "idem.potent@example.com"), "create-idem-2"));
+        assertFalse(userRepository.existsByEmail("idem.other@example.com"));
+
+        // Clean up
+        userService.deleteUser(created.getId());
+    }
+
+    @Test
+    void testEmailConstraintVerifierRejectsUnnamedIndex() throws SQLException {
+        emailConstraintVerifier.afterSingletonsInstantiated();
+
+        // A database created before the constraint was named keeps its generated index next to
+        // the one Hibernate adds; a duplicate could then be reported under either name
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE UNIQUE INDEX legacy_users_email ON users(email)");
+        }
+        try {
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> emailConstraintVerifier.afterSingletonsInstantiated());
+            assertTrue(ex.getMessage().contains("LEGACY_USERS_EMAIL"));
+        } finally {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP INDEX legacy_users_email");
+            }
+        }
+    }
+
+    @Test
+    void testBulkActivateDeactivateDelete() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(userService.createUser(newUserDto("Bulk", "State", "bulk-state" + i + "@example.com")).getId());
+        }
+        userService.getUserById(ids.get(0));
+
+        // Duplicates and unknown ids are ignored; chunks of two commit separately
+        BulkUpdateResult deactivated = userService.deactivateUsers(
+                BulkUserActionRequest.byIds(List.of(ids.get(0), ids.get(1), ids.get(2), ids.get(0), -1L)));
+        assertEquals(3, deactivated.getMatched());
+        assertEquals(3, deactivated.getAffected());
+        assertEquals(2, deactivated.getChunks());
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(ids.get(0)));
+
+        // Already inactive users match but are not changed again
+        BulkUpdateResult repeated = userService.deactivateUsers(BulkUserActionRequest.byIds(List.of(ids.get(0))));
+        assertEquals(1, repeated.getMatched());
+        assertEquals(0, repeated.getAffected());
+
+        // By criteria, activation picks up every inactive user updated before the cutoff
+        LocalDateTime cutoff = LocalDateTime.now().plusMinutes(1);
+        BulkUpdateResult activated = userService.activateUsers(BulkUserActionRequest.updatedBefore(cutoff));
+        assertTrue(activated.getAffected() >= 3);
+        assertEquals(ids.get(0), userService.getUserById(ids.get(0)).getId());
+
+        // Criteria deletion only removes users that are inactive
+        userService.deactivateUsers(BulkUserActionRequest.byIds(List.of(ids.get(3), ids.get(4))));
+        BulkUpdateResult deleted = userService.deleteUsers(BulkUserActionRequest.updatedBefore(cutoff));
+        assertTrue(deleted.getAffected() >= 2);
+        assertFalse(userRepository.existsById(ids.get(3)));
+        assertFalse(userRepository.existsById(ids.get(4)));
+        assertTrue(userRepository.existsById(ids.get(0)));
+
+        assertThrows(InvalidRequestException.class, () -> userService.deleteUsers(new BulkUserActionRequest()));
+        assertThrows(InvalidRequestException.class,
+                () -> userService.deleteUsers(new BulkUserActionRequest(List.of(ids.get(0)), cutoff)));
+
+        // Clean up
+        BulkUpdateResult cleanedUp = userService.deleteUsers(BulkUserActionRequest.byIds(ids));
+        assertEquals(3, cleanedUp.getAffected());
+    }
+
+    @Test
+    void testConditionalUpdate() throws Exception {
+        UserDto created = userService.createUser(newUserDto("Cond", "Itional", "conditional@example.com"));
+
+        // The version lookup yields the same validator as the full representation
+        String etag = UserETags.of(userService.getUserVersion(created.getId()));
+        assertEquals(UserETags.of(userService.getUserById(created.getId())), etag);
+        assertEquals(UserETags.of(created), etag);
+        mockMvc.perform(get("/api/users/{id}", created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        mockMvc.perform(get("/api/users/{id}", created.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // Lookups by email carry the same validators
+        mockMvc.perform(get("/api/users/email/{email}", "conditional@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        mockMvc.perform(get("/api/users/email/{email}", "conditional@example.com").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        assertThrows(PreconditionFailedException.class,
+                () -> userService.updateUser(created.getId(), newUserDto("Cond", "Stale", "conditional@example.com"), "\"0-0\""));
+        assertThrows(PreconditionFailedException.class,
+                () -> userService.updateUser(created.getId(), newUserDto("Cond", "Weak", "conditional@example.com"), "W/" + etag));
+        UserDto updated = userService.updateUser(created.getId(), newUserDto("Cond", "Fresh", "conditional@example.com"), etag);
+        assertEquals("Fresh", updated.getLastName());
+
+        // The previous ETag is now stale; "*" matches any current version
+        String updatedEtag = UserETags.of(userService.getUserVersion(created.getId()));
+        assertNotEquals(etag, updatedEtag);
+        assertEquals(UserETags.of(updated), updatedEtag);
+        mockMvc.perform(get("/api/users/{id}", created.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertThrows(PreconditionFailedException.class,
+                () -> userService.updateUser(created.getId(), newUserDto("Cond", "Again", "conditional@example.com"), etag));
+        userService.updateUser(created.getId(), newUserDto("Cond", "Star", "conditional@example.com"), "*");
+
+        // Clean up
+        userService.deleteUser(created.getId());
+    }
+
+    @Test
+    void testSparseFieldsets() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(userService.createUser(newUserDto("Sparse", "Fields", "sparse" + i + "@example.com")).getId());
+        }
+
+        // Only the selected columns (plus id and updatedAt for paging and ETags) are read
+        CursorPage<UserDto> page = userService.getUsersPage(null, 2, UserFields.parse("email, isActive"));
+        assertEquals(2, page.getItems().size());
+        UserDto first = page.getItems().get(0);
+        assertNotNull(first.getId());
+        assertNotNull(first.getEmail());
+        assertNotNull(first.getUpdatedAt());
+        assertNull(first.getFirstName());
+        assertNull(first.getAddress());
+        CursorPage<UserDto> next = userService.getUsersPage(page.getNextCursor(), 2, UserFields.parse("email"));
+        assertTrue(next.getItems().get(0).getId() > first.getId());
+
+        // The response contains exactly the requested properties
+        String full = mockMvc.perform(get("/api/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String sparse = mockMvc.perform(get("/api/users").param("limit", "2").param("fields", "id,email,isActive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].id").exists())
+                .andExpect(jsonPath("$.data.items[0].email").exists())
+                .andExpect(jsonPath("$.data.items[0].isActive").value(true))
+                .andExpect(jsonPath("$.data.items[0].updatedAt").doesNotExist())
+                .andExpect(jsonPath("$.data.items[0].address").doesNotExist())
+                .andExpect(jsonPath("$.data.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(sparse.length() * 2 < full.length());
+
+        mockMvc.perform(get("/api/users/{id}", ids.get(0)).param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.email").value("sparse0@example.com"))
+                .andExpect(jsonPath("$.data.id").doesNotExist());
+        mockMvc.perform(get("/api/users").param("fields", "email,password"))
+                .andExpect(status().isBadRequest());
+
+        // Clean up
+        userService.deleteUsers(BulkUserActionRequest.byIds(ids));
+    }
+
+    @Test
+    void testBinaryContentNegotiation() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+        // Requests and responses can both be CBOR
+        byte[] request = cbor.writer(UserFields.ALL.filterProvider()).writeValueAsBytes(newUserDto("Binary", "Format", "binary@example.com"));
+        byte[] created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        long id = cbor.readTree(created).at("/data/id").asLong();
+        assertEquals("binary@example.com", cbor.readTree(created).at("/data/email").asText());
+
+        // Smile honours sparse fieldsets like JSON does
+        byte[] sparse = mockMvc.perform(get("/api/users/{id}", id)
+                        .param("fields", "email")
+                        .accept(MediaType.parseMediaType("application/x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("binary@example.com", smile.readTree(sparse).at("/data/email").asText());
+        assertTrue(smile.readTree(sparse).at("/data/firstName").isMissingNode());
+
+        // Browsers keep getting JSON
+        String jsonEtag = mockMvc.perform(get("/api/users/{id}", id).accept(MediaType.TEXT_HTML, MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Each encoding and field selection has its own strong ETag, and a JSON tag never
+        // revalidates a CBOR response
+        String cborEtag = mockMvc.perform(get("/api/users/{id}", id).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonEtag, cborEtag);
+        assertNotEquals(cborEtag, mockMvc.perform(get("/api/users/{id}", id).param("fields", "email").accept(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/users/{id}", id).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}", id).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+        // Any representation's tag names the version for If-Match
+        userService.updateUser(id, newUserDto("Binary", "Matched", "binary@example.com"), cborEtag);
+
+        // Clean up
+        userService.deleteUser(id);
+    }
+
+    @Test
+    void testChangeFeed() throws Exception {
+        // Catch up with everything other tests have changed
+        String cursor = null;
+        CursorPage<UserChange> page;
+        do {
+            page = userService.getChanges(cursor, 500);
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        assertNotNull(cursor);
+        String start = cursor;
+
+        UserDto kept = userService.createUser(newUserDto("Feed", "Kept", "feed-kept@example.com"));
+        UserDto deleted = userService.createUser(newUserDto("Feed", "Deleted", "feed-deleted@example.com"));
+        UserDto bulkDeleted = userService.createUser(newUserDto("Feed", "Bulk", "feed-bulk@example.com"));
+        userService.updateUser(kept.getId(), newUserDto("Feed", "Renamed", "feed-kept@example.com"));
+        userService.deactivateUser(kept.getId());
+        userService.deleteUser(deleted.getId());
+        userService.deleteUsers(BulkUserActionRequest.byIds(List.of(bulkDeleted.getId())));
+
+        // Each user appears once, in its latest state, and hard deletes show up as tombstones
+        List<UserChange> changes = new ArrayList<>();
+        do {
+            page = userService.getChanges(cursor, 2);
+            changes.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        assertEquals(List.of(kept.getId(), deleted.getId(), bulkDeleted.getId()),
+                changes.stream().map(UserChange::getId).toList());
+        assertEquals(UserChangeType.UPSERTED, changes.get(0).getType());
+        assertEquals("Renamed", changes.get(0).getUser().getLastName());
+        assertFalse(changes.get(0).getUser().getIsActive());
+        assertEquals(UserChangeType.DELETED, changes.get(1).getType());
+        assertNull(changes.get(1).getUser());
+        assertEquals(UserChangeType.DELETED, changes.get(2).getType());
+        assertFalse(changes.get(2).getChangedAt().isBefore(changes.get(1).getChangedAt()));
+
+        // A sparse fieldset reads only the selected columns of each upserted user
+        List<UserChange> sparse = userService.getChanges(start, 10, UserFields.parse("email,isActive")).getItems();
+        assertEquals(changes.stream().map(UserChange::getId).toList(), sparse.stream().map(UserChange::getId).toList());
+        assertEquals("feed-kept@example.com", sparse.get(0).getUser().getEmail());
+        assertNull(sparse.get(0).getUser().getLastName());
+
+        // The last page still carries a cursor to poll with
+        CursorPage<UserChange> empty = userService.getChanges(cursor, 2);
+        assertTrue(empty.getItems().isEmpty());
+        assertEquals(cursor, empty.getNextCursor());
+        mockMvc.perform(get("/api/users/changes").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items").isEmpty())
+                .andExpect(jsonPath("$.data.nextCursor").value(cursor));
+
+        // Cursors older than the tombstone retention may have missed deletions
+        String expired = CursorCodec.encode("0", "0");
+        assertThrows(ChangeCursorExpiredException.class, () -> userService.getChanges(expired, 2));
+        mockMvc.perform(get("/api/users/changes").param("after", expired))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/api/users/changes").param("after", CursorCodec.encodeId(1L)))
+                .andExpect(status().isBadRequest());
+
+        // Clean up
+        userService.deleteUser(kept.getId());
+    }
+
+    @Test
+    void testSqlStatementBudgets() throws Exception {
+        // Creating a user is one insert, plus a sequence call once per allocation block
+        UserDto created = assertStatements(2, () -> userService.createUser(newUserDto("Budget", "Sql", "budget@example.com")));
+        // A cache miss reads one row, a hit none
+        assertStatements(1, () -> userService.getUserById(created.getId()));
+        assertStatements(0, () -> userService.getUserById(created.getId()));
+        assertStatements(1, () -> userService.getUsersPage(null, 10));
+
+        // Over HTTP the same counts come back as headers and per-endpoint meters: a cold
+        // lookup loads the user with one statement, a warm one runs none
+        UserDto cold = userService.createUser(newUserDto("Budget", "Cold", "budget-cold@example.com"));
+        mockMvc.perform(get("/api/users/{id}", cold.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatsFilter.STATEMENTS_HEADER, "1"));
+        mockMvc.perform(get("/api/users/{id}", created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatsFilter.STATEMENTS_HEADER, "0"));
+        mockMvc.perform(get("/api/users").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatsFilter.STATEMENTS_HEADER, "1"))
+                .andExpect(header().exists(SqlStatsFilter.SERVER_TIMING_HEADER));
+        assertNotNull(meterRegistry.find("sql.request.statements").tags("method", "GET", "uri", "/api/users").summary());
+        assertNotNull(meterRegistry.find("sql.request.jdbc.time").tags("method", "GET", "uri", "/api/users").timer());
+
+        // Loading users one at a time repeats one statement per user: the N+1 signature
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(userService.createUser(newUserDto("Budget", "Loop", "budget-loop" + i + "@example.com")).getId());
+        }
+        SqlStats oneByOne = SqlStats.measure(() -> ids.forEach(id -> userService.getUserVersion(id)));
+        assertEquals(3, oneByOne.getStatements());
+        assertEquals(3, oneByOne.getMaxRepeats());
+
+        // Clean up
+        ids.add(created.getId());
+        ids.add(cold.getId());
+        userService.deleteUsers(BulkUserActionRequest.byIds(ids));
+    }
+
+    @Test
+    void testUsersBatch() throws Exception {
+        UserDto first = userService.createUser(newUserDto("Batch", "First", "batch-first@example.com"));
+        UserDto second = userService.createUser(newUserDto("Batch", "Second", "batch-second@example.com"));
+        UserDto inactive = userService.createUser(newUserDto("Batch", "Inactive", "batch-inactive@example.com"));
+        userService.deactivateUser(inactive.getId());
+        userService.getUserById(second.getId());
+        long unknownId = Long.MAX_VALUE;
+
+        // second comes from the cache; the other ids take two chunked queries, the email one
+        UserBatchResult result = assertStatements(3, () -> userService.getUsersBatch(
+                List.of(first.getId(), unknownId, second.getId(), inactive.getId(), first.getId()),
+                List.of("batch-second@example.com", "nobody@example.com")));
+        assertEquals(List.of(first.getId(), second.getId()), result.getUsers().stream().map(UserDto::getId).toList());
+        assertEquals(List.of(unknownId, inactive.getId()), result.getMissingIds());
+        assertEquals(List.of("nobody@example.com"), result.getMissingEmails());
+        // Users loaded by the batch are cached for later lookups
+        assertStatements(0, () -> userService.getUserById(first.getId()));
+
+        mockMvc.perform(get("/api/users/batch")
+                        .param("ids", first.getId() + "," + unknownId)
+                        .param("emails", "batch-second@example.com")
+                        .param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.users[0].email").value("batch-first@example.com"))
+                .andExpect(jsonPath("$.data.users[0].id").doesNotExist())
+                .andExpect(jsonPath("$.data.users[1].email").value("batch-second@example.com"))
+                .andExpect(jsonPath("$.data.missingIds[0]").value(unknownId));
+        mockMvc.perform(get("/api/users/batch"))
+                .andExpect(status().isBadRequest());
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 1; id <= 501; id++) {
+            tooMany.add(id);
+        }
+        assertThrows(InvalidRequestException.class, () -> userService.getUsersBatch(tooMany, null));
+
+        // Clean up
+        userService.deleteUsers(BulkUserActionRequest.byIds(List.of(first.getId(), second.getId(), inactive.getId())));
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneLoad() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            SingleFlight<Long, UserDto> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+            UserDto loaded = newUserDto("Single", "Flight", "single-flight@example.com");
+            AtomicInteger loads = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<UserDto>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    awaitLatch(release);
+                    return loaded;
+                })));
+            }
+            while (singleFlight.getLoads() + singleFlight.getCoalesced() < 8) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<UserDto> result : results) {
+                assertSame(loaded, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(7, singleFlight.getCoalesced());
+            assertEquals(0, singleFlight.getInFlight());
+
+            // Every waiter gets the leader's exception
+            CountDownLatch failLeader = new CountDownLatch(1);
+            Future<UserDto> leader = executor.submit(() -> singleFlight.load(2L, () -> {
+                awaitLatch(failLeader);
+                throw new UserNotFoundException(2L);
+            }));
+            while (singleFlight.getInFlight() == 0) {
+                Thread.sleep(1);
+            }
+            Future<UserDto> waiter = executor.submit(() -> singleFlight.load(2L, () -> loaded));
+            while (singleFlight.getCoalesced() < 8) {
+                Thread.sleep(1);
+            }
+            failLeader.countDown();
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(UserNotFoundException.class, waiterFailure.getCause());
+            assertSame(leaderFailure.getCause(), waiterFailure.getCause());
+
+            // Waiters give up after the timeout; the leader's load is unaffected
+            SingleFlight<Long, UserDto> slow = new SingleFlight<>(Duration.ofMillis(50));
+            CountDownLatch slowRelease = new CountDownLatch(1);
+            Future<UserDto> slowLeader = executor.submit(() -> slow.load(3L, () -> {
+                awaitLatch(slowRelease);
+                return loaded;
+            }));
+            while (slow.getInFlight() == 0) {
+                Thread.sleep(1);
+            }
+            assertThrows(LookupTimeoutException.class, () -> slow.load(3L, () -> loaded));
+            assertEquals(1, slow.getTimeouts());
+            // A write detaches the load in flight, later callers run their own
+            slow.forget(3L);
+            UserDto fresh = newUserDto("Fresh", "Load", "fresh-load@example.com");
+            assertSame(fresh, slow.load(3L, () -> fresh));
+            slowRelease.countDown();
+            assertSame(loaded, slowLeader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Through the service: a miss is loaded once, then served from the cache
+        UserDto created = userService.createUser(newUserDto("Coal", "Esced", "coalesced@example.com"));
+        assertStatements(1, () -> userService.getUserById(created.getId()));
+        assertStatements(0, () -> userService.getUserById(created.getId()));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(Long.MAX_VALUE));
+        userService.deleteUser(created.getId());
+    }
+
+    @Test
+    void testNegativeLookupCache() {
+        // 404s carry no stack trace
+        assertEquals(0, new UserNotFoundException(1L).getStackTrace().length);
+
+        // A second lookup of an unknown email is answered without a query
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("negative@example.com"));
+        assertThrows(UserNotFoundException.class,
+                () -> assertStatements(0, () -> userService.getUserByEmail("NEGATIVE@example.com")));
+
+        // Creating the user clears it
+        UserDto created = userService.createUser(newUserDto("Nega", "Tive", "negative@example.com"));
+        assertEquals(created.getId(), userService.getUserByEmail("negative@example.com").getId());
+
+        // Deactivated users are remembered as missing until they are activated again
+        userService.deactivateUser(created.getId());
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(created.getId()));
+        assertThrows(UserNotFoundException.class,
+                () -> assertStatements(0, () -> userService.getUserById(created.getId())));
+        userService.activateUser(created.getId());
+        assertEquals("negative@example.com", userService.getUserById(created.getId()).getEmail());
+
+        // Changing an email to one cached as missing clears that entry too
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("negative-new@example.com"));
+        UserDto update = newUserDto("Nega", "Tive", "negative-new@example.com");
+        userService.updateUser(created.getId(), update);
+        assertEquals(created.getId(), userService.getUserByEmail("negative-new@example.com").getId());
+
+        // Batch lookups skip known-missing keys
+        userService.getUsersBatch(List.of(Long.MAX_VALUE - 1), List.of());
+        UserBatchResult batch = assertStatements(0,
+                () -> userService.getUsersBatch(List.of(Long.MAX_VALUE - 1), List.of()));
+        assertEquals(List.of(Long.MAX_VALUE - 1), batch.getMissingIds());
+
+        userService.deleteUser(created.getId());
+    }
+
+    @Test
+    void testUserStatsCounters() throws Exception {
+        userCountersMaintainer.reconcile();
+        UserStats before = userService.getUserStats();
+        assertEquals(30, before.getCreatedPerDay().size());
+        long createdToday = before.getCreatedPerDay().get(LocalDate.now());
+
+        UserDto first = userService.createUser(newUserDto("Stat", "One", "stats-one@example.com"));
+        UserDto second = userService.createUser(newUserDto("Stat", "Two", "stats-two@example.com"));
+        userService.deactivateUser(first.getId());
+        // Reading the counters runs no query
+        UserStats stats = assertStatements(0, userService::getUserStats);
+        assertEquals(before.getTotal() + 2, stats.getTotal());
+        assertEquals(before.getActive() + 1, stats.getActive());
+        assertEquals(before.getInactive() + 1, stats.getInactive());
+        assertEquals(createdToday + 2, stats.getCreatedPerDay().get(LocalDate.now()));
+
+        // Activating an active user changes nothing; bulk updates count the rows they changed
+        userService.activateUser(first.getId());
+        userService.activateUser(first.getId());
+        assertEquals(before.getActive() + 2, userService.getUserStats().getActive());
+        userService.deactivateUsers(BulkUserActionRequest.byIds(List.of(first.getId(), second.getId())));
+        assertEquals(before.getActive(), userService.getUserStats().getActive());
+        userService.activateUsers(BulkUserActionRequest.byIds(List.of(second.getId())));
+        assertEquals(before.getActive() + 1, userService.getUserStats().getActive());
+
+        // A write the counters never saw is picked up by the next reconciliation
+        User unseen = userRepository.save(newUser("Un", "Seen", "stats-unseen@example.com"));
+        assertEquals(before.getTotal() + 2, userService.getUserStats().getTotal());
+        userCountersMaintainer.reconcile();
+        assertEquals(before.getTotal() + 3, userService.getUserStats().getTotal());
+        assertEquals(before.getActive() + 2, userService.getUserStats().getActive());
+
+        mockMvc.perform(get("/api/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(before.getTotal() + 3))
+                .andExpect(jsonPath("$.data.inactive").value(before.getInactive() + 1))
+                .andExpect(jsonPath("$.data.createdPerDay['" + LocalDate.now() + "']").value(createdToday + 3));
+
+        // Deletes count the rows by their state
+        userService.deleteUser(first.getId());
+        userService.deleteUsers(BulkUserActionRequest.byIds(List.of(second.getId(), unseen.getId())));
+        stats = userService.getUserStats();
+        assertEquals(before.getTotal(), stats.getTotal());
+        assertEquals(before.getActive(), stats.getActive());
+        assertEquals(createdToday, stats.getCreatedPerDay().get(LocalDate.now()));
+    }
+
+    @Test
+    void testArchiveInactiveUsers() {
+        UserDto first = userService.createUser(newUserDto("Arch", "One", "archive-one@example.com"));
+        UserDto second = userService.createUser(newUserDto("Arch", "Two", "archive-two@example.com"));
+        UserDto third = userService.createUser(newUserDto("Arch", "Three", "archive-three@example.com"));
+        UserDto active = userService.createUser(newUserDto("Arch", "Active", "archive-active@example.com"));
+        userService.deactivateUsers(BulkUserActionRequest.byIds(List.of(first.getId(), second.getId(), third.getId())));
+        userCountersMaintainer.reconcile();
+        UserStats before = userService.getUserStats();
+        double archivedBefore = meterRegistry.get("users.archive.moved").tag("direction", "archived").functionCounter().count();
+
+        // Inactive users move in chunks; active ones and the counters stay put
+        assertTrue(userArchiver.archiveInactiveBefore(LocalDateTime.now().plusSeconds(1)) >= 3);
+        for (UserDto user : List.of(first, second, third)) {
+            assertFalse(userRepository.existsById(user.getId()));
+            assertTrue(archivedUserRepository.existsById(user.getId()));
+        }
+        assertTrue(userRepository.existsById(active.getId()));
+        assertTrue(meterRegistry.get("users.archive.moved").tag("direction", "archived").functionCounter().count() >= archivedBefore + 3);
+        assertEquals(archivedUserRepository.count(), meterRegistry.get("users.table.rows").tag("table", "users_archive").gauge().value());
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(first.getId()));
+        userCountersMaintainer.reconcile();
+        assertEquals(before.getTotal(), userService.getUserStats().getTotal());
+        assertEquals(before.getActive(), userService.getUserStats().getActive());
+
+        // Activation restores transparently, including a cached 404
+        userService.activateUser(first.getId());
+        assertFalse(archivedUserRepository.existsById(first.getId()));
+        assertEquals("archive-one@example.com", userService.getUserById(first.getId()).getEmail());
+        assertEquals(before.getActive() + 1, userService.getUserStats().getActive());
+
+        // Archived emails stay reserved, for single, bulk and updated users alike, so the owner
+        // can always be restored
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.createUser(newUserDto("Re", "Used", "archive-two@example.com")));
+        BulkCreateResult reused = userService.createUsers(List.of(newUserDto("Re", "Used", "archive-two@example.com")).iterator());
+        assertEquals(0, reused.getCreated());
+        assertEquals(BulkItemStatus.CONFLICT, reused.getItems().get(0).getStatus());
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.updateUser(active.getId(), newUserDto("Arch", "Active", "archive-two@example.com")));
+        userService.activateUser(second.getId());
+        assertFalse(archivedUserRepository.existsById(second.getId()));
+        assertEquals("archive-two@example.com", userService.getUserById(second.getId()).getEmail());
+
+        // Bulk activation reaches the archive
+        BulkUpdateResult activated = userService.activateUsers(BulkUserActionRequest.byIds(List.of(third.getId())));
+        assertEquals(1, activated.getAffected());
+        assertTrue(userService.getUserById(third.getId()).getIsActive());
+
+        // Deleting an archived user leaves a tombstone like any other delete
+        userService.deleteUser(second.getId());
+        assertFalse(archivedUserRepository.existsById(second.getId()));
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(second.getId()));
+        List<UserChange> changes = userService.getChanges(null, 500).getItems();
+        assertTrue(changes.stream().anyMatch(change -> change.getId().equals(second.getId())
+                && change.getType() == UserChangeType.DELETED));
+
+        userService.deleteUsers(BulkUserActionRequest.byIds(List.of(first.getId(), third.getId(), active.getId())));
+        UserStats after = userService.getUserStats();
+        assertEquals(before.getTotal() - 4, after.getTotal());
+        userCountersMaintainer.reconcile();
+        assertEquals(after.getTotal(), userService.getUserStats().getTotal());
+    }
+
+    private <T> T assertStatements(int budget, Supplier<T> action) {
+        SqlStats stats = SqlStats.start();
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            stats.stop();
+        }
+        assertTrue(stats.getStatements() <= budget, () -> "Expected at most " + budget + " statements but got " + stats);
+        return result;
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private UserDto newUserDto(String firstName, String lastName, String email) {
+        UserDto dto = new UserDto();
+        dto.setFirstName(firstName);
+        dto.setLastName(lastName);
+        dto.setEmail(email);
+        dto.setPhoneNumber("1234567890");
+        return dto;
+    }
+
+    private User newUser(String firstName, String lastName, String email) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setPhoneNumber("1234567890");
+        user.setIsActive(true);
+        return user;
+    }
 }
@@ -0,0 +1,235 @@
+package com.ayush.end_to_end;
+
+import com.ayush.end_to_end.dto.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import userRest.ReactiveUserRest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "users.reactive.stream-batch-size=2"
+})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveUserRestTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void testReactiveUserLifecycle() {
+        Map<String, Object> created = createUser("Rhea", "Flux", "rhea.flux@example.com");
+        Number id = (Number) ((Map<?, ?>) created.get("data")).get("id");
+        assertNotNull(id);
+
+        webTestClient.get().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.data.email").isEqualTo("rhea.flux@example.com");
+
+        String etag = webTestClient.get().uri("/api/users/email/{email}", "rhea.flux@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.id").isEqualTo(id.intValue())
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(etag);
+        webTestClient.get().uri("/api/users/email/{email}", "rhea.flux@example.com")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        // Writes delegate to the blocking service, so its conflict rule applies
+        webTestClient.post().uri("/api/users")
+                .bodyValue(newUser("Rhea", "Again", "rhea.flux@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.patch().uri("/api/users/{id}/deactivate", id)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(false);
+
+        webTestClient.delete().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testReactiveListingPagesAndStreams() {
+        List<Number> ids = List.of(
+                (Number) ((Map<?, ?>) createUser("Ada", "Stream", "ada.stream@example.com").get("data")).get("id"),
+                (Number) ((Map<?, ?>) createUser("Bo", "Stream", "bo.stream@example.com").get("data")).get("id"),
+                (Number) ((Map<?, ?>) createUser("Cy", "Stream", "cy.stream@example.com").get("data")).get("id"));
+
+        // JSON keeps the ApiResponse envelope and cursor paging
+        webTestClient.get().uri("/api/users?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.items.length()").isEqualTo(2)
+                .jsonPath("$.data.hasMore").isEqualTo(true)
+                .jsonPath("$.data.nextCursor").isNotEmpty();
+
+        webTestClient.get().uri("/api/users?limit=1000")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        // NDJSON streams every row across several keyset batches
+        List<UserDto> streamed = webTestClient.get().uri("/api/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertNotNull(streamed);
+        assertTrue(streamed.stream().map(UserDto::getId).toList()
+                .containsAll(ids.stream().map(Number::longValue).toList()));
+        for (int i = 1; i < streamed.size(); i++) {
+            assertTrue(streamed.get(i - 1).getId() < streamed.get(i).getId());
+        }
+
+        // Clean up
+        ids.forEach(id -> webTestClient.delete().uri("/api/users/{id}", id).exchange().expectStatus().isOk());
+    }
+
+    @Test
+    void testReactiveConditionalRequests() {
+        Number id = (Number) ((Map<?, ?>) createUser("Etta", "Tag", "etta.tag@example.com").get("data")).get("id");
+
+        String etag = webTestClient.get().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(etag);
+
+        // An unchanged user is answered with 304 and no body
+        webTestClient.get().uri("/api/users/{id}", id)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        // A stale If-Match is rejected, the current one updates and yields a new ETag
+        webTestClient.put().uri("/api/users/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"stale\"")
+                .bodyValue(newUser("Etta", "Stale", "etta.tag@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        String updatedEtag = webTestClient.put().uri("/api/users/{id}", id)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .bodyValue(newUser("Etta", "Fresh", "etta.tag@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotEquals(etag, updatedEtag);
+
+        webTestClient.get().uri("/api/users/{id}", id)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, updatedEtag)
+                .expectBody()
+                .jsonPath("$.data.lastName").isEqualTo("Fresh");
+
+        // Clean up
+        webTestClient.delete().uri("/api/users/{id}", id).exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void testReactiveSmileAndCompression() {
+        List<UserDto> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(newUser("Gzip", "Payload", "gzip" + i + "@example.com"));
+        }
+        Map<?, ?> created = webTestClient.post().uri("/api/users/bulk")
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        List<Number> ids = ((List<?>) ((Map<?, ?>) created.get("data")).get("items")).stream()
+                .map(item -> (Number) ((Map<?, ?>) item).get("id"))
+                .toList();
+
+        // Large responses are compressed for clients that accept it, small ones are not. The client
+        // inflates gzip transparently and drops Content-Encoding, so check what the server decided:
+        // compressed responses vary on Accept-Encoding and lose their Content-Length. User
+        // endpoints also vary on Accept (JSON or Smile); /api/test is JSON only
+        webTestClient.get().uri("/api/users?limit=50")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.VARY, "accept,accept-encoding")
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_LENGTH);
+        webTestClient.get().uri("/api/test")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.VARY);
+
+        webTestClient.get().uri("/api/users?limit=2")
+                .accept(MediaType.parseMediaType(ReactiveUserRest.SMILE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(ReactiveUserRest.SMILE);
+
+        // Clean up
+        webTestClient.post().uri("/api/users/bulk/delete")
+                .bodyValue(Map.of("ids", ids))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.affected").isEqualTo(ids.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> createUser(String firstName, String lastName, String email) {
+        return webTestClient.post().uri("/api/users")
+                .bodyValue(newUser(firstName, lastName, email))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private UserDto newUser(String firstName, String lastName, String email) {
+        UserDto dto = new UserDto();
+        dto.setFirstName(firstName);
+        dto.setLastName(lastName);
+        dto.setEmail(email);
+        dto.setPhoneNumber("1234567890");
+        return dto;
+    }
+}
@@ -0,0 +1,136 @@
+package com.ayush.end_to_end;
+
+import com.ayush.end_to_end.datasource.ReadYourWritesFilter;
+import com.ayush.end_to_end.datasource.ReplicaLoadBalancer;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserDto;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import service.UserService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Separate H2 databases stand in for the primary and two replicas. Nothing replicates between
+// them, so a row only present in one database shows which one served a read.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primarydb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.db.replicas.enabled=true",
+        "app.db.replicas.urls=jdbc:h2:mem:replica1;IFEXISTS=TRUE,jdbc:h2:mem:replica2;IFEXISTS=TRUE",
+        "app.db.replicas.connection-timeout=250ms",
+        "app.db.replicas.health-check-interval=1h",
+        "app.db.replicas.read-your-writes-window=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTests {
+
+    // replica2 is never created, so it stays down
+    private static Connection replica1;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReplicaLoadBalancer replicaLoadBalancer;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        replica1 = DriverManager.getConnection("jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = replica1.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, first_name VARCHAR(50) NOT NULL, "
+                    + "last_name VARCHAR(50) NOT NULL, email VARCHAR(255) NOT NULL, phone_number VARCHAR(15), "
+                    + "address VARCHAR(200), created_at TIMESTAMP, updated_at TIMESTAMP, is_active BOOLEAN)");
+            statement.execute("INSERT INTO users VALUES (1000, 'Rep', 'Lica', 'replica-only@example.com', NULL, NULL, "
+                    + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, TRUE)");
+        }
+    }
+
+    @AfterAll
+    static void closeReplica() throws SQLException {
+        replica1.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplicas() throws Exception {
+        assertTrue(replicaLoadBalancer.isHealthy("replica-1"));
+        assertFalse(replicaLoadBalancer.isHealthy("replica-2"));
+
+        // Writes go to the primary and are not visible on the (non-replicating) replica
+        UserDto created = userService.createUser(newUserDto("Prim", "Ary", "primary-only@example.com"));
+        assertEquals(List.of("replica-only@example.com"), emails(userService.getUsersPage(null, 10)));
+
+        // Batch misses fill the shared caches, so they are loaded from the primary
+        UserBatchResult batch = userService.getUsersBatch(List.of(created.getId(), 1000L), null);
+        assertEquals(List.of(created.getId()), batch.getUsers().stream().map(UserDto::getId).toList());
+        assertEquals(List.of(1000L), batch.getMissingIds());
+
+        // A client that just wrote reads from the primary for the read-your-writes window
+        Cookie readYourWrites = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Own\",\"lastName\":\"Write\",\"email\":\"own-write@example.com\",\"phoneNumber\":\"1234567890\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(readYourWrites);
+        mockMvc.perform(get("/api/users").param("limit", "10").cookie(readYourWrites))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[*].email", hasItem("own-write@example.com")))
+                .andExpect(jsonPath("$.data.items[*].email", not(hasItem("replica-only@example.com"))));
+        mockMvc.perform(get("/api/users").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[*].email", not(hasItem("own-write@example.com"))));
+        // Cookies claiming a longer window than configured are ignored
+        Cookie forged = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() + 3_600_000));
+        mockMvc.perform(get("/api/users").param("limit", "10").cookie(forged))
+                .andExpect(jsonPath("$.data.items[*].email", hasItem("replica-only@example.com")));
+
+        // With every replica down, reads fall back to the primary
+        try (Statement statement = replica1.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        replicaLoadBalancer.checkHealth();
+        assertFalse(replicaLoadBalancer.isHealthy("replica-1"));
+        List<String> emails = emails(userService.getUsersPage(null, 10));
+        assertTrue(emails.contains("primary-only@example.com"));
+        assertTrue(emails.contains("own-write@example.com"));
+        assertFalse(emails.contains("replica-only@example.com"));
+
+        userService.deleteUser(created.getId());
+    }
+
+    private List<String> emails(CursorPage<UserDto> page) {
+        return page.getItems().stream().map(UserDto::getEmail).toList();
+    }
+
+    private UserDto newUserDto(String firstName, String lastName, String email) {
+        UserDto dto = new UserDto();
+        dto.setFirstName(firstName);
+        dto.setLastName(lastName);
+        dto.setEmail(email);
+        dto.setPhoneNumber("1234567890");
+        return dto;
+    }
+}
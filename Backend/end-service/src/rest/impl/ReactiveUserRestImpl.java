@@ -0,0 +1,268 @@
+package rest.impl;
+
+import com.ayush.end_to_end.dto.ApiResponse;
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.ayush.end_to_end.dto.UserStats;
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.ayush.end_to_end.util.UserETags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import service.ReactiveUserService;
+import userRest.ReactiveUserRest;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRestImpl implements ReactiveUserRest {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveUserRestImpl.class);
+    
+    @Autowired
+    private ReactiveUserService reactiveUserService;
+    
+    @Value("${users.bulk.max-items:10000}")
+    private int bulkMaxItems;
+    
+    @Override
+    public Mono<ResponseEntity<String>> test() {
+        log.info("Test endpoint called");
+        return Mono.just(ResponseEntity.ok("Controller is working!"));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<UserDto>>> createUser(UserDto userDto, String idempotencyKey) {
+        log.info("Creating new user with email: {}", userDto.getEmail());
+        return reactiveUserService.createUser(userDto, idempotencyKey)
+                .doOnNext(createdUser -> log.info("User created successfully with ID: {}", createdUser.getId()))
+                .map(createdUser -> ResponseEntity.ok(ApiResponse.success("User created successfully", createdUser)));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<BulkCreateResult>>> createUsers(List<UserDto> userDtos) {
+        log.info("Bulk creating {} users", userDtos.size());
+        if (userDtos.size() > bulkMaxItems) {
+            return Mono.error(new InvalidRequestException("Bulk requests are limited to " + bulkMaxItems
+                    + " users; use application/x-ndjson to stream larger batches"));
+        }
+        return bulkResponse(reactiveUserService.createUsers(Flux.fromIterable(userDtos)));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<BulkCreateResult>>> createUsersFromStream(Flux<UserDto> userDtos) {
+        log.info("Bulk creating users from NDJSON stream");
+        return bulkResponse(reactiveUserService.createUsers(userDtos));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<BulkUpdateResult>>> activateUsers(BulkUserActionRequest request) {
+        log.info("Bulk activating users");
+        return bulkUpdateResponse(reactiveUserService.activateUsers(request), "Bulk user activation completed");
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<BulkUpdateResult>>> deactivateUsers(BulkUserActionRequest request) {
+        log.info("Bulk deactivating users");
+        return bulkUpdateResponse(reactiveUserService.deactivateUsers(request), "Bulk user deactivation completed");
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<BulkUpdateResult>>> deleteUsers(BulkUserActionRequest request) {
+        log.info("Bulk deleting users");
+        return bulkUpdateResponse(reactiveUserService.deleteUsers(request), "Bulk user deletion completed");
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<UserStats>>> getUserStats() {
+        log.info("Fetching user stats");
+        return reactiveUserService.getUserStats()
+                .map(stats -> ResponseEntity.ok(ApiResponse.success("User stats retrieved successfully", stats)));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<UserBatchResult>>> getUsersBatch(List<Long> ids, List<String> emails) {
+        log.info("Fetching users batch");
+        return reactiveUserService.getUsersBatch(ids, emails)
+                .doOnNext(result -> log.info("Batch retrieved - {} users found, {} ids and {} emails missing",
+                        result.getUsers().size(), result.getMissingIds().size(), result.getMissingEmails().size()))
+                .map(result -> ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", result)));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<UserDto>>> getUserById(Long id, ServerWebExchange exchange) {
+        log.info("Fetching user by ID: {}", id);
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        MediaType format = ResponseFormats.negotiate(requestHeaders.getOrEmpty(HttpHeaders.ACCEPT), ResponseFormats.REACTIVE);
+        if (requestHeaders.getIfNoneMatch().isEmpty() && requestHeaders.getIfModifiedSince() == -1) {
+            // Unconditional: load the user once and derive the validators from it
+            return reactiveUserService.getUserById(id).map(user -> userResponse(user, format));
+        }
+        // Conditional: validators come from the version alone, so a 304 never loads or serializes the user
+        return reactiveUserService.getUserVersion(id)
+                .flatMap(version -> {
+                    if (exchange.checkNotModified(UserETags.of(version, format, UserFields.ALL), lastModified(version.updatedAt()))) {
+                        log.info("User not modified for ID: {}", id);
+                        return Mono.empty();
+                    }
+                    return reactiveUserService.getUserById(id).map(user -> userResponse(user, format));
+                });
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<UserDto>>> getUserByEmail(String email, ServerWebExchange exchange) {
+        log.info("Fetching user by email: {}", email);
+        MediaType format = ResponseFormats.negotiate(exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT),
+                ResponseFormats.REACTIVE);
+        // No version query by email: the validators come from the (usually cached) user
+        return reactiveUserService.getUserByEmail(email)
+                .flatMap(user -> {
+                    if (exchange.checkNotModified(UserETags.of(user, format, UserFields.ALL), lastModified(user.getUpdatedAt()))) {
+                        log.info("User not modified for email: {}", email);
+                        return Mono.empty();
+                    }
+                    return Mono.just(userResponse(user, format));
+                });
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<CursorPage<UserDto>>>> getAllUsers(String after, Integer limit, boolean unpaged) {
+        if (unpaged) {
+            log.info("Fetching all users (unpaged)");
+            return reactiveUserService.getAllUsers()
+                    .map(users -> pageResponse("All users retrieved successfully", CursorPage.unpaged(users)));
+        }
+        log.info("Fetching users page after cursor: {}", after);
+        return reactiveUserService.getUsersPage(after, limit)
+                .map(page -> pageResponse("Users retrieved successfully", page));
+    }
+    
+    @Override
+    public Flux<UserDto> streamAllUsers() {
+        log.info("Streaming all users as NDJSON");
+        return reactiveUserService.streamAllUsers();
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<CursorPage<UserDto>>>> getActiveUsers(String after, Integer limit, boolean unpaged) {
+        if (unpaged) {
+            log.info("Fetching active users (unpaged)");
+            return reactiveUserService.getActiveUsers()
+                    .map(users -> pageResponse("Active users retrieved successfully", CursorPage.unpaged(users)));
+        }
+        log.info("Fetching active users page after cursor: {}", after);
+        return reactiveUserService.getActiveUsersPage(after, limit)
+                .map(page -> pageResponse("Active users retrieved successfully", page));
+    }
+    
+    @Override
+    public Flux<UserDto> streamActiveUsers() {
+        log.info("Streaming active users as NDJSON");
+        return reactiveUserService.streamActiveUsers();
+    }
+    
+    @Override
+    public Flux<UserDto> exportUsers() {
+        log.info("Exporting users as NDJSON");
+        return reactiveUserService.streamAllUsers();
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<List<UserDto>>>> searchUsersByName(String name, Integer limit) {
+        log.info("Searching users by name: {}", name);
+        return reactiveUserService.searchUsersByName(name, limit)
+                .doOnNext(users -> log.info("Found {} users matching name: {}", users.size(), name))
+                .map(users -> ResponseEntity.ok(ApiResponse.success("Users found successfully", users)));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<CursorPage<UserChange>>>> getChanges(String after, Integer limit) {
+        log.info("Fetching user changes after cursor: {}", after);
+        return reactiveUserService.getChanges(after, limit)
+                .doOnNext(page -> log.info("Retrieved {} user changes successfully", page.getItems().size()))
+                .map(page -> ResponseEntity.ok(ApiResponse.success("User changes retrieved successfully", page)));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<UserDto>>> updateUser(Long id, UserDto userDto, String ifMatch, String accept) {
+        log.info("Updating user with ID: {}", id);
+        MediaType format = ResponseFormats.negotiate(accept == null ? List.of() : List.of(accept), ResponseFormats.REACTIVE);
+        return reactiveUserService.updateUser(id, userDto, ifMatch)
+                .map(updatedUser -> ResponseEntity.ok()
+                        .eTag(UserETags.of(updatedUser, format, UserFields.ALL))
+                        .lastModified(UserETags.lastModified(updatedUser.getUpdatedAt()))
+                        .body(ApiResponse.success("User updated successfully", updatedUser)));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<String>>> deleteUser(Long id) {
+        log.info("Deleting user with ID: {}", id);
+        return reactiveUserService.deleteUser(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.<String>success("User deleted successfully"))));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<String>>> deactivateUser(Long id) {
+        log.info("Deactivating user with ID: {}", id);
+        return reactiveUserService.deactivateUser(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.<String>success("User deactivated successfully"))));
+    }
+    
+    @Override
+    public Mono<ResponseEntity<ApiResponse<String>>> activateUser(Long id) {
+        log.info("Activating user with ID: {}", id);
+        return reactiveUserService.activateUser(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponse.<String>success("User activated successfully"))));
+    }
+    
+    private Mono<ResponseEntity<ApiResponse<BulkCreateResult>>> bulkResponse(Mono<BulkCreateResult> creation) {
+        return creation
+                .doOnNext(result -> log.info("Bulk creation finished - created: {}, conflicts: {}, invalid: {}",
+                        result.getCreated(), result.getConflicts(), result.getInvalid()))
+                .map(result -> ResponseEntity.ok(ApiResponse.success("Bulk user creation completed", result)));
+    }
+    
+    private Mono<ResponseEntity<ApiResponse<BulkUpdateResult>>> bulkUpdateResponse(Mono<BulkUpdateResult> update, String message) {
+        return update
+                .doOnNext(result -> log.info("Bulk update finished - matched: {}, affected: {}, chunks: {}",
+                        result.getMatched(), result.getAffected(), result.getChunks()))
+                .map(result -> ResponseEntity.ok(ApiResponse.success(message, result)));
+    }
+    
+    private ResponseEntity<ApiResponse<UserDto>> userResponse(UserDto user, MediaType format) {
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(user, format, UserFields.ALL))
+                .lastModified(UserETags.lastModified(user.getUpdatedAt()))
+                .body(ApiResponse.success("User retrieved successfully", user));
+    }
+    
+    // The page ETag lets WebFlux answer If-None-Match with 304 before writing the body. There is
+    // no Last-Modified: the newest updatedAt on a page does not change when a row is deleted.
+    private ResponseEntity<ApiResponse<CursorPage<UserDto>>> pageResponse(String message, CursorPage<UserDto> page) {
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(page))
+                .body(ApiResponse.success(message, page));
+    }
+    
+    private static Instant lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? null : Instant.ofEpochMilli(UserETags.lastModified(updatedAt));
+    }
+}
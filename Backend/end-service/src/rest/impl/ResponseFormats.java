@@ -0,0 +1,44 @@
+package rest.impl;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicts which format content negotiation will write a user response in, so its ETag can
+ * be computed, and a 304 answered, before a message converter has been chosen. The lists
+ * follow the converter and codec order of {@code BinaryFormatsConfig}: JSON first.
+ */
+final class ResponseFormats {
+    
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    
+    static final List<MediaType> SERVLET = List.of(MediaType.APPLICATION_JSON, SMILE, MediaType.APPLICATION_CBOR);
+    
+    static final List<MediaType> REACTIVE = List.of(MediaType.APPLICATION_JSON, SMILE);
+    
+    private ResponseFormats() {}
+    
+    // Unparseable or unsatisfiable Accept headers fall back to JSON; negotiation rejects them anyway
+    static MediaType negotiate(List<String> acceptHeaders, List<MediaType> producible) {
+        List<MediaType> accepted = new ArrayList<>();
+        try {
+            for (String accept : acceptHeaders) {
+                accepted.addAll(MediaType.parseMediaTypes(accept));
+            }
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (IllegalArgumentException ex) {
+            return producible.get(0);
+        }
+        for (MediaType acceptable : accepted) {
+            for (MediaType format : producible) {
+                if (acceptable.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        return producible.get(0);
+    }
+}
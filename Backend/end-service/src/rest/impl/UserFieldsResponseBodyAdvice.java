@@ -0,0 +1,36 @@
+package rest.impl;
+
+import com.ayush.end_to_end.dto.UserFields;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+import userRest.UserRest;
+
+/**
+ * Applies the {@code fields=} sparse fieldset of a {@link UserRest} request to every
+ * {@code UserDto} in the response body, keeping the endpoints' declared return types.
+ * The parameter has already been validated by the endpoint.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserFieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+    
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!UserRest.class.isAssignableFrom(returnType.getContainingClass())
+                || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        UserFields fields = UserFields.parse(servletRequest.getServletRequest().getParameter("fields"));
+        if (!fields.isAll()) {
+            bodyContainer.setFilters(fields.filterProvider());
+        }
+    }
+}
@@ -1,25 +1,62 @@
 package rest.impl;
 
 import com.ayush.end_to_end.dto.ApiResponse;
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
 import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.ayush.end_to_end.dto.UserStats;
+import com.ayush.end_to_end.dto.UserVersion;
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.ayush.end_to_end.util.UserETags;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import service.UserService;
 import userRest.UserRest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserRestImpl implements UserRest {
     
     private static final Logger log = LoggerFactory.getLogger(UserRestImpl.class);
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${users.bulk.max-items:10000}")
+    private int bulkMaxItems;
+    
     @Override
     public ResponseEntity<String> test() {
         log.info("Test endpoint called");
@@ -27,59 +64,227 @@ public class UserRestImpl implements UserRest {
     }
     
     @Override
-    public ResponseEntity<ApiResponse<UserDto>> createUser(UserDto userDto) {
+    public ResponseEntity<ApiResponse<UserDto>> createUser(UserDto userDto, String idempotencyKey) {
         log.info("Creating new user with email: {}", userDto.getEmail());
-        UserDto createdUser = userService.createUser(userDto);
+        UserDto createdUser = userService.createUser(userDto, idempotencyKey);
         log.info("User created successfully with ID: {}", createdUser.getId());
         return ResponseEntity.ok(ApiResponse.success("User created successfully", createdUser));
     }
     
     @Override
-    public ResponseEntity<ApiResponse<UserDto>> getUserById(Long id) {
+    public ResponseEntity<ApiResponse<BulkCreateResult>> createUsers(List<UserDto> userDtos) {
+        log.info("Bulk creating {} users", userDtos.size());
+        if (userDtos.size() > bulkMaxItems) {
+            throw new InvalidRequestException("Bulk requests are limited to " + bulkMaxItems
+                    + " users; use application/x-ndjson to stream larger batches");
+        }
+        BulkCreateResult result = userService.createUsers(userDtos.iterator());
+        log.info("Bulk creation finished - created: {}, conflicts: {}, invalid: {}",
+                result.getCreated(), result.getConflicts(), result.getInvalid());
+        return ResponseEntity.ok(ApiResponse.success("Bulk user creation completed", result));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<BulkCreateResult>> createUsersFromStream(HttpServletRequest request) {
+        log.info("Bulk creating users from NDJSON stream");
+        BulkCreateResult result;
+        try (MappingIterator<UserDto> userDtos = objectMapper.readerFor(UserDto.class).readValues(request.getInputStream())) {
+            result = userService.createUsers(userDtos);
+        } catch (IOException | RuntimeJsonMappingException ex) {
+            // Chunks before the malformed line have already been committed
+            throw new InvalidRequestException("Malformed NDJSON request body: " + ex.getMessage());
+        }
+        log.info("Bulk creation finished - created: {}, conflicts: {}, invalid: {}",
+                result.getCreated(), result.getConflicts(), result.getInvalid());
+        return ResponseEntity.ok(ApiResponse.success("Bulk user creation completed", result));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<BulkUpdateResult>> activateUsers(BulkUserActionRequest request) {
+        log.info("Bulk activating users");
+        BulkUpdateResult result = userService.activateUsers(request);
+        log.info("Bulk activation finished - matched: {}, activated: {}", result.getMatched(), result.getAffected());
+        return ResponseEntity.ok(ApiResponse.success("Bulk user activation completed", result));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<BulkUpdateResult>> deactivateUsers(BulkUserActionRequest request) {
+        log.info("Bulk deactivating users");
+        BulkUpdateResult result = userService.deactivateUsers(request);
+        log.info("Bulk deactivation finished - matched: {}, deactivated: {}", result.getMatched(), result.getAffected());
+        return ResponseEntity.ok(ApiResponse.success("Bulk user deactivation completed", result));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<BulkUpdateResult>> deleteUsers(BulkUserActionRequest request) {
+        log.info("Bulk deleting users");
+        BulkUpdateResult result = userService.deleteUsers(request);
+        log.info("Bulk deletion finished - matched: {}, deleted: {}", result.getMatched(), result.getAffected());
+        return ResponseEntity.ok(ApiResponse.success("Bulk user deletion completed", result));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<UserStats>> getUserStats() {
+        log.info("Fetching user stats");
+        UserStats stats = userService.getUserStats();
+        return ResponseEntity.ok(ApiResponse.success("User stats retrieved successfully", stats));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<UserBatchResult>> getUsersBatch(List<Long> ids, List<String> emails, String fields) {
+        log.info("Fetching users batch");
+        // Users are served from the lookup cache where possible, so only the response is narrowed
+        UserFields.parse(fields);
+        UserBatchResult result = userService.getUsersBatch(ids, emails);
+        log.info("Batch retrieved - {} users found, {} ids and {} emails missing", result.getUsers().size(),
+                result.getMissingIds().size(), result.getMissingEmails().size());
+        return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", result));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<UserDto>> getUserById(Long id, String fields, WebRequest request) {
         log.info("Fetching user by ID: {}", id);
+        // Single users come from the lookup cache, so only the response is narrowed
+        UserFields selection = UserFields.parse(fields);
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        MediaType format = ResponseFormats.negotiate(accept == null ? List.of() : List.of(accept), ResponseFormats.SERVLET);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            // Unconditional: load the user once and derive the validators from it
+            UserDto user = userService.getUserById(id);
+            log.info("User retrieved successfully for ID: {}", id);
+            return ResponseEntity.ok()
+                    .eTag(UserETags.of(user, format, selection))
+                    .lastModified(UserETags.lastModified(user.getUpdatedAt()))
+                    .body(ApiResponse.success("User retrieved successfully", user));
+        }
+        // Conditional: validators come from the version alone, so a 304 never loads or serializes
+        // the user. checkNotModified also writes ETag and Last-Modified onto a 200 response.
+        UserVersion version = userService.getUserVersion(id);
+        if (request.checkNotModified(UserETags.of(version, format, selection), UserETags.lastModified(version.updatedAt()))) {
+            log.info("User not modified for ID: {}", id);
+            return null;
+        }
         UserDto user = userService.getUserById(id);
         log.info("User retrieved successfully for ID: {}", id);
         return ResponseEntity.ok(ApiResponse.success("User retrieved successfully", user));
     }
     
     @Override
-    public ResponseEntity<ApiResponse<UserDto>> getUserByEmail(String email) {
+    public ResponseEntity<ApiResponse<UserDto>> getUserByEmail(String email, String fields, WebRequest request) {
         log.info("Fetching user by email: {}", email);
+        UserFields selection = UserFields.parse(fields);
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        MediaType format = ResponseFormats.negotiate(accept == null ? List.of() : List.of(accept), ResponseFormats.SERVLET);
+        // There is no version query by email: the user comes from the lookup cache and the
+        // validators from it, so a 304 only saves serializing and sending the body. The tags
+        // are the same as for GET /users/{id}. checkNotModified also writes them onto a 200.
         UserDto user = userService.getUserByEmail(email);
+        if (request.checkNotModified(UserETags.of(user, format, selection), UserETags.lastModified(user.getUpdatedAt()))) {
+            log.info("User not modified for email: {}", email);
+            return null;
+        }
         log.info("User retrieved successfully for email: {}", email);
         return ResponseEntity.ok(ApiResponse.success("User retrieved successfully", user));
     }
     
     @Override
-    public ResponseEntity<ApiResponse<List<UserDto>>> getAllUsers() {
-        log.info("Fetching all users");
-        List<UserDto> users = userService.getAllUsers();
-        log.info("Retrieved {} users successfully", users.size());
-        return ResponseEntity.ok(ApiResponse.success("All users retrieved successfully", users));
+    public ResponseEntity<ApiResponse<CursorPage<UserDto>>> getAllUsers(String after, Integer limit, boolean unpaged, String fields) {
+        UserFields selection = UserFields.parse(fields);
+        if (unpaged) {
+            log.info("Fetching all users (unpaged)");
+            List<UserDto> users = userService.getAllUsers(selection);
+            log.info("Retrieved {} users successfully", users.size());
+            return pageResponse("All users retrieved successfully", CursorPage.unpaged(users));
+        }
+        log.info("Fetching users page after cursor: {}", after);
+        CursorPage<UserDto> page = userService.getUsersPage(after, limit, selection);
+        log.info("Retrieved {} users successfully", page.getItems().size());
+        return pageResponse("Users retrieved successfully", page);
     }
     
     @Override
-    public ResponseEntity<ApiResponse<List<UserDto>>> getActiveUsers() {
-        log.info("Fetching active users");
-        List<UserDto> users = userService.getActiveUsers();
-        log.info("Retrieved {} active users successfully", users.size());
-        return ResponseEntity.ok(ApiResponse.success("Active users retrieved successfully", users));
+    public ResponseEntity<ApiResponse<CursorPage<UserDto>>> getActiveUsers(String after, Integer limit, boolean unpaged, String fields) {
+        UserFields selection = UserFields.parse(fields);
+        if (unpaged) {
+            log.info("Fetching active users (unpaged)");
+            List<UserDto> users = userService.getActiveUsers(selection);
+            log.info("Retrieved {} active users successfully", users.size());
+            return pageResponse("Active users retrieved successfully", CursorPage.unpaged(users));
+        }
+        log.info("Fetching active users page after cursor: {}", after);
+        CursorPage<UserDto> page = userService.getActiveUsersPage(after, limit, selection);
+        log.info("Retrieved {} active users successfully", page.getItems().size());
+        return pageResponse("Active users retrieved successfully", page);
     }
     
     @Override
-    public ResponseEntity<ApiResponse<List<UserDto>>> searchUsersByName(String name) {
+    public ResponseEntity<StreamingResponseBody> exportUsers(boolean gzip, String fields) {
+        log.info("Exporting users as NDJSON, gzip: {}", gzip);
+        UserFields selection = UserFields.parse(fields);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+            long exported;
+            // One JSON document per line; no per-row flush so the servlet buffer batches writes
+            try (SequenceWriter writer = objectMapper.writer(selection.filterProvider())
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(target)) {
+                exported = userService.exportUsers(user -> {
+                    try {
+                        writer.write(user);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }, selection);
+                log.info("Exported {} users successfully", exported);
+            }
+            // The separator only goes between rows; an empty export stays an empty body
+            if (exported > 0) {
+                target.write('\n');
+            }
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<List<UserDto>>> searchUsersByName(String name, Integer limit, String fields) {
         log.info("Searching users by name: {}", name);
-        List<UserDto> users = userService.searchUsersByName(name);
+        // The trigram path re-checks names on the loaded rows, so only the response is narrowed
+        UserFields.parse(fields);
+        List<UserDto> users = userService.searchUsersByName(name, limit);
         log.info("Found {} users matching name: {}", users.size(), name);
         return ResponseEntity.ok(ApiResponse.success("Users found successfully", users));
     }
     
     @Override
-    public ResponseEntity<ApiResponse<UserDto>> updateUser(Long id, UserDto userDto) {
+    public ResponseEntity<ApiResponse<CursorPage<UserChange>>> getChanges(String after, Integer limit, String fields) {
+        log.info("Fetching user changes after cursor: {}", after);
+        CursorPage<UserChange> page = userService.getChanges(after, limit, UserFields.parse(fields));
+        log.info("Retrieved {} user changes successfully", page.getItems().size());
+        return ResponseEntity.ok(ApiResponse.success("User changes retrieved successfully", page));
+    }
+    
+    @Override
+    public ResponseEntity<ApiResponse<UserDto>> updateUser(Long id, UserDto userDto, String ifMatch, String accept) {
         log.info("Updating user with ID: {}", id);
-        UserDto updatedUser = userService.updateUser(id, userDto);
+        UserDto updatedUser = userService.updateUser(id, userDto, ifMatch);
         log.info("User updated successfully for ID: {}", id);
-        return ResponseEntity.ok(ApiResponse.success("User updated successfully", updatedUser));
+        MediaType format = ResponseFormats.negotiate(accept == null ? List.of() : List.of(accept), ResponseFormats.SERVLET);
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(updatedUser, format, UserFields.ALL))
+                .lastModified(UserETags.lastModified(updatedUser.getUpdatedAt()))
+                .body(ApiResponse.success("User updated successfully", updatedUser));
     }
     
     @Override
@@ -105,4 +310,12 @@ public class UserRestImpl implements UserRest {
         log.info("User activated successfully for ID: {}", id);
         return ResponseEntity.ok(ApiResponse.success("User activated successfully"));
     }
+    
+    // The page ETag lets Spring answer If-None-Match with 304 before writing the body. There is
+    // no Last-Modified: the newest updatedAt on a page does not change when a row is deleted.
+    private ResponseEntity<ApiResponse<CursorPage<UserDto>>> pageResponse(String message, CursorPage<UserDto> page) {
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(page))
+                .body(ApiResponse.success(message, page));
+    }
 }
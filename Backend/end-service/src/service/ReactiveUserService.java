@@ -0,0 +1,62 @@
+package service;
+
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserStats;
+import com.ayush.end_to_end.dto.UserVersion;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveUserService {
+    
+    Mono<UserDto> createUser(UserDto userDto, String idempotencyKey);
+    
+    Mono<BulkCreateResult> createUsers(Flux<UserDto> userDtos);
+    
+    Mono<UserDto> getUserById(Long id);
+    
+    Mono<UserVersion> getUserVersion(Long id);
+    
+    Mono<UserDto> getUserByEmail(String email);
+    
+    Mono<UserBatchResult> getUsersBatch(List<Long> ids, List<String> emails);
+    
+    Mono<UserStats> getUserStats();
+    
+    Mono<List<UserDto>> getAllUsers();
+    
+    Mono<CursorPage<UserDto>> getUsersPage(String after, Integer limit);
+    
+    Flux<UserDto> streamAllUsers();
+    
+    Mono<List<UserDto>> getActiveUsers();
+    
+    Mono<CursorPage<UserDto>> getActiveUsersPage(String after, Integer limit);
+    
+    Flux<UserDto> streamActiveUsers();
+    
+    Mono<List<UserDto>> searchUsersByName(String name, Integer limit);
+    
+    Mono<CursorPage<UserChange>> getChanges(String after, Integer limit);
+    
+    Mono<UserDto> updateUser(Long id, UserDto userDto, String ifMatch);
+    
+    Mono<Void> deleteUser(Long id);
+    
+    Mono<Void> deactivateUser(Long id);
+    
+    Mono<Void> activateUser(Long id);
+    
+    Mono<BulkUpdateResult> activateUsers(BulkUserActionRequest request);
+    
+    Mono<BulkUpdateResult> deactivateUsers(BulkUserActionRequest request);
+    
+    Mono<BulkUpdateResult> deleteUsers(BulkUserActionRequest request);
+}
@@ -1,27 +1,76 @@
 package service;
 
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
 import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.ayush.end_to_end.dto.UserStats;
+import com.ayush.end_to_end.dto.UserVersion;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     
     UserDto createUser(UserDto userDto);
     
+    UserDto createUser(UserDto userDto, String idempotencyKey);
+    
+    BulkCreateResult createUsers(Iterator<UserDto> userDtos);
+    
     UserDto getUserById(Long id);
     
+    UserVersion getUserVersion(Long id);
+    
     UserDto getUserByEmail(String email);
     
+    UserBatchResult getUsersBatch(List<Long> ids, List<String> emails);
+    
+    UserStats getUserStats();
+    
     List<UserDto> getAllUsers();
     
+    List<UserDto> getAllUsers(UserFields fields);
+    
+    CursorPage<UserDto> getUsersPage(String after, Integer limit);
+    
+    CursorPage<UserDto> getUsersPage(String after, Integer limit, UserFields fields);
+    
     List<UserDto> getActiveUsers();
     
-    List<UserDto> searchUsersByName(String name);
+    List<UserDto> getActiveUsers(UserFields fields);
+    
+    CursorPage<UserDto> getActiveUsersPage(String after, Integer limit);
+    
+    CursorPage<UserDto> getActiveUsersPage(String after, Integer limit, UserFields fields);
+    
+    List<UserDto> searchUsersByName(String name, Integer limit);
+    
+    CursorPage<UserChange> getChanges(String after, Integer limit);
+    
+    CursorPage<UserChange> getChanges(String after, Integer limit, UserFields fields);
+    
+    long exportUsers(Consumer<UserDto> consumer);
+    
+    long exportUsers(Consumer<UserDto> consumer, UserFields fields);
     
     UserDto updateUser(Long id, UserDto userDto);
     
+    UserDto updateUser(Long id, UserDto userDto, String ifMatch);
+    
     void deleteUser(Long id);
     
     void deactivateUser(Long id);
     
     void activateUser(Long id);
+    
+    BulkUpdateResult activateUsers(BulkUserActionRequest request);
+    
+    BulkUpdateResult deactivateUsers(BulkUserActionRequest request);
+    
+    BulkUpdateResult deleteUsers(BulkUserActionRequest request);
 }
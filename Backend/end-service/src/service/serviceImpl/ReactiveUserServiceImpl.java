@@ -0,0 +1,252 @@
+package service.serviceImpl;
+
+import com.ayush.end_to_end.cache.UserLookupCache;
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserStats;
+import com.ayush.end_to_end.dto.UserVersion;
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.ayush.end_to_end.exception.UserNotFoundException;
+import com.ayush.end_to_end.repository.ReactiveUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import service.UserService;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Reactive facade over the user API. Reads go through R2DBC and the shared lookup cache;
+ * writes, bulk creation and name search delegate to {@link UserService} on the
+ * bounded-elastic scheduler so validation, conflict handling, cache eviction and index
+ * maintenance stay in one place and never block an event-loop thread.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserServiceImpl implements service.ReactiveUserService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveUserServiceImpl.class);
+    
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private UserLookupCache userLookupCache;
+    
+    @Autowired
+    private UserPagination userPagination;
+    
+    @Value("${users.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+    
+    @Value("${users.reactive.stream-batch-size:500}")
+    private int streamBatchSize;
+    
+    @Override
+    public Mono<UserDto> createUser(UserDto userDto, String idempotencyKey) {
+        return blocking(() -> userService.createUser(userDto, idempotencyKey));
+    }
+    
+    @Override
+    public Mono<BulkCreateResult> createUsers(Flux<UserDto> userDtos) {
+        // The request body is pulled one chunk at a time as the blocking service consumes it
+        return blocking(() -> userService.createUsers(userDtos.toIterable(bulkChunkSize).iterator()))
+                .onErrorMap(DecodingException.class,
+                        ex -> new InvalidRequestException("Malformed NDJSON request body: " + ex.getMessage()));
+    }
+    
+    @Override
+    public Mono<UserDto> getUserById(Long id) {
+        UserDto cachedUser = userLookupCache.getById(id);
+        if (cachedUser != null) {
+            log.info("User served from cache for ID: {}", id);
+            return Mono.just(cachedUser);
+        }
+        if (userLookupCache.isMissingId(id)) {
+            return Mono.error(new UserNotFoundException(id));
+        }
+        return reactiveUserRepository.findActiveUserDtoById(id)
+                .switchIfEmpty(Mono.error(() -> missingId(id)))
+                .doOnNext(userLookupCache::put);
+    }
+    
+    @Override
+    public Mono<UserVersion> getUserVersion(Long id) {
+        UserDto cachedUser = userLookupCache.getById(id);
+        if (cachedUser != null) {
+            log.info("User version served from cache for ID: {}", id);
+            return Mono.just(new UserVersion(id, cachedUser.getUpdatedAt()));
+        }
+        if (userLookupCache.isMissingId(id)) {
+            return Mono.error(new UserNotFoundException(id));
+        }
+        return reactiveUserRepository.findActiveUserVersionById(id)
+                .switchIfEmpty(Mono.error(() -> missingId(id)));
+    }
+    
+    @Override
+    public Mono<UserDto> getUserByEmail(String email) {
+        UserDto cachedUser = userLookupCache.getByEmail(email);
+        if (cachedUser != null) {
+            log.info("User served from cache for email: {}", email);
+            return Mono.just(cachedUser);
+        }
+        if (userLookupCache.isMissingEmail(email)) {
+            return Mono.error(new UserNotFoundException("email", email));
+        }
+        return reactiveUserRepository.findActiveUserDtoByEmail(email)
+                .switchIfEmpty(Mono.error(() -> missingEmail(email)))
+                .doOnNext(userLookupCache::put);
+    }
+    
+    // Shares the cache-first, chunked IN (...) lookup of the blocking service
+    @Override
+    public Mono<UserBatchResult> getUsersBatch(List<Long> ids, List<String> emails) {
+        return blocking(() -> userService.getUsersBatch(ids, emails));
+    }
+    
+    // Only blocks when the counters have not been reconciled yet
+    @Override
+    public Mono<UserStats> getUserStats() {
+        return blocking(userService::getUserStats);
+    }
+    
+    @Override
+    public Mono<List<UserDto>> getAllUsers() {
+        return Mono.fromRunnable(userPagination::requireUnpagedAllowed)
+                .thenMany(streamAllUsers())
+                .collectList();
+    }
+    
+    @Override
+    public Mono<CursorPage<UserDto>> getUsersPage(String after, Integer limit) {
+        return page(after, limit, reactiveUserRepository::findUserDtosAfter);
+    }
+    
+    @Override
+    public Flux<UserDto> streamAllUsers() {
+        return streamInBatches(reactiveUserRepository::findUserDtosAfter);
+    }
+    
+    @Override
+    public Mono<List<UserDto>> getActiveUsers() {
+        return Mono.fromRunnable(userPagination::requireUnpagedAllowed)
+                .thenMany(streamActiveUsers())
+                .collectList();
+    }
+    
+    @Override
+    public Mono<CursorPage<UserDto>> getActiveUsersPage(String after, Integer limit) {
+        return page(after, limit, reactiveUserRepository::findActiveUserDtosAfter);
+    }
+    
+    @Override
+    public Flux<UserDto> streamActiveUsers() {
+        return streamInBatches(reactiveUserRepository::findActiveUserDtosAfter);
+    }
+    
+    @Override
+    public Mono<List<UserDto>> searchUsersByName(String name, Integer limit) {
+        return blocking(() -> userService.searchUsersByName(name, limit));
+    }
+    
+    // Tombstones are only mapped for JPA, so the feed runs on the blocking service
+    @Override
+    public Mono<CursorPage<UserChange>> getChanges(String after, Integer limit) {
+        return blocking(() -> userService.getChanges(after, limit));
+    }
+    
+    @Override
+    public Mono<UserDto> updateUser(Long id, UserDto userDto, String ifMatch) {
+        return blocking(() -> userService.updateUser(id, userDto, ifMatch));
+    }
+    
+    @Override
+    public Mono<Void> deleteUser(Long id) {
+        return blocking(() -> userService.deleteUser(id));
+    }
+    
+    @Override
+    public Mono<Void> deactivateUser(Long id) {
+        return blocking(() -> userService.deactivateUser(id));
+    }
+    
+    @Override
+    public Mono<Void> activateUser(Long id) {
+        return blocking(() -> userService.activateUser(id));
+    }
+    
+    @Override
+    public Mono<BulkUpdateResult> activateUsers(BulkUserActionRequest request) {
+        return blocking(() -> userService.activateUsers(request));
+    }
+    
+    @Override
+    public Mono<BulkUpdateResult> deactivateUsers(BulkUserActionRequest request) {
+        return blocking(() -> userService.deactivateUsers(request));
+    }
+    
+    @Override
+    public Mono<BulkUpdateResult> deleteUsers(BulkUserActionRequest request) {
+        return blocking(() -> userService.deleteUsers(request));
+    }
+    
+    private Mono<CursorPage<UserDto>> page(String after, Integer limit,
+                                           BiFunction<Long, Integer, Flux<UserDto>> query) {
+        return Mono.defer(() -> {
+            long afterId = userPagination.decodeAfter(after);
+            int pageLimit = userPagination.resolvePageLimit(limit);
+            log.info("Fetching users page after ID: {} with limit: {}", afterId, pageLimit);
+            return query.apply(afterId, pageLimit + 1)
+                    .collectList()
+                    .map(users -> userPagination.toPage(users, pageLimit));
+        });
+    }
+    
+    // Pulls one keyset batch at a time and only fetches the next one once downstream has
+    // asked for more, so a slow client holds at most a batch in memory
+    private Flux<UserDto> streamInBatches(BiFunction<Long, Integer, Flux<UserDto>> query) {
+        return query.apply(0L, streamBatchSize)
+                .collectList()
+                .expand(batch -> batch.size() < streamBatchSize
+                        ? Mono.empty()
+                        : query.apply(batch.get(batch.size() - 1).getId(), streamBatchSize).collectList())
+                .flatMapIterable(Function.identity(), 1);
+    }
+    
+    private UserNotFoundException missingId(Long id) {
+        userLookupCache.putMissingId(id);
+        return new UserNotFoundException(id);
+    }
+    
+    private UserNotFoundException missingEmail(String email) {
+        userLookupCache.putMissingEmail(email);
+        return new UserNotFoundException("email", email);
+    }
+    
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    private static Mono<Void> blocking(Runnable call) {
+        return Mono.<Void>fromRunnable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,105 @@
+package service.serviceImpl;
+
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserChange;
+import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.ayush.end_to_end.util.CursorCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paging rules shared by the blocking and reactive user services.
+ */
+@Component
+class UserPagination {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserPagination.class);
+    
+    @Value("${users.pagination.default-limit:50}")
+    private int defaultPageLimit;
+    
+    @Value("${users.pagination.max-limit:500}")
+    private int maxPageLimit;
+    
+    @Value("${users.pagination.allow-unpaged:false}")
+    private boolean allowUnpaged;
+    
+    void requireUnpagedAllowed() {
+        if (!allowUnpaged) {
+            log.info("Rejected unpaged listing - users.pagination.allow-unpaged is disabled");
+            throw new InvalidRequestException("Unpaged listing is disabled; use 'after' and 'limit' to page through users");
+        }
+    }
+    
+    int resolvePageLimit(Integer limit) {
+        if (limit == null) {
+            return defaultPageLimit;
+        }
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new InvalidRequestException("limit must be between 1 and " + maxPageLimit);
+        }
+        return limit;
+    }
+    
+    long decodeAfter(String after) {
+        return after != null ? CursorCodec.decodeId(after) : 0L;
+    }
+    
+    // Fetches are made with limit + 1 rows so the extra row tells us whether another page exists
+    CursorPage<UserDto> toPage(List<UserDto> users, int pageLimit) {
+        boolean hasMore = users.size() > pageLimit;
+        List<UserDto> pageUsers = hasMore ? new ArrayList<>(users.subList(0, pageLimit)) : users;
+        String nextCursor = hasMore ? CursorCodec.encodeId(pageUsers.get(pageUsers.size() - 1).getId()) : null;
+        log.info("Retrieved {} users for page, hasMore: {}", pageUsers.size(), hasMore);
+        return CursorPage.of(pageUsers, nextCursor, pageLimit);
+    }
+    
+    // Change feed cursors hold the (changedAt, id) of the last entry, with microsecond precision
+    ChangePosition decodeChangesAfter(String after) {
+        if (after == null) {
+            return ChangePosition.START;
+        }
+        String[] parts = CursorCodec.decode(after, 2);
+        try {
+            long micros = Long.parseLong(parts[0]);
+            LocalDateTime at = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+            return new ChangePosition(at, Long.parseLong(parts[1]));
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid cursor: " + after);
+        }
+    }
+    
+    // Unlike listings, the last page carries a cursor too: consumers keep polling with it
+    CursorPage<UserChange> toChangesPage(List<UserChange> changes, int pageLimit, ChangePosition from) {
+        boolean hasMore = changes.size() > pageLimit;
+        List<UserChange> pageChanges = hasMore ? new ArrayList<>(changes.subList(0, pageLimit)) : changes;
+        ChangePosition last = pageChanges.isEmpty() ? from : ChangePosition.of(pageChanges.get(pageChanges.size() - 1));
+        log.info("Retrieved {} user changes for page, hasMore: {}", pageChanges.size(), hasMore);
+        return new CursorPage<>(pageChanges, last.encode(), hasMore, pageLimit);
+    }
+    
+    record ChangePosition(LocalDateTime at, long id) {
+        
+        static final ChangePosition START = new ChangePosition(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+        
+        static ChangePosition of(UserChange change) {
+            return new ChangePosition(change.getChangedAt(), change.getId());
+        }
+        
+        String encode() {
+            LocalDateTime truncated = at.truncatedTo(ChronoUnit.MICROS);
+            long micros = truncated.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + truncated.getNano() / 1_000;
+            return CursorCodec.encode(String.valueOf(micros), String.valueOf(id));
+        }
+    }
+}
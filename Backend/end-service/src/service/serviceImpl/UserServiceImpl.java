@@ -1,21 +1,81 @@
 package service.serviceImpl;
 
+import com.ayush.end_to_end.archive.UserArchiver;
+import com.ayush.end_to_end.cache.UserLookupCache;
+import com.ayush.end_to_end.changefeed.UserTombstoneStore;
+import com.ayush.end_to_end.datasource.ReadRouting;
+import com.ayush.end_to_end.dto.BulkCreateResult;
+import com.ayush.end_to_end.dto.BulkItemResult;
+import com.ayush.end_to_end.dto.BulkUpdateResult;
+import com.ayush.end_to_end.dto.BulkUserActionRequest;
+import com.ayush.end_to_end.dto.CursorPage;
+import com.ayush.end_to_end.dto.UserBatchResult;
+import com.ayush.end_to_end.dto.UserChange;
 import com.ayush.end_to_end.dto.UserDto;
+import com.ayush.end_to_end.dto.UserFields;
+import com.ayush.end_to_end.dto.UserKeyProjection;
+import com.ayush.end_to_end.dto.UserStats;
+import com.ayush.end_to_end.dto.UserVersion;
+import com.ayush.end_to_end.entity.ArchivedUser;
 import com.ayush.end_to_end.entity.User;
+import com.ayush.end_to_end.exception.ChangeCursorExpiredException;
+import com.ayush.end_to_end.exception.InvalidRequestException;
+import com.ayush.end_to_end.exception.PreconditionFailedException;
 import com.ayush.end_to_end.exception.UserAlreadyExistsException;
 import com.ayush.end_to_end.exception.UserNotFoundException;
+import com.ayush.end_to_end.idempotency.IdempotencyStore;
+import com.ayush.end_to_end.index.EmailBloomFilter;
+import com.ayush.end_to_end.index.UserNameTrigramIndex;
 import com.ayush.end_to_end.mapper.UserMapper;
+import com.ayush.end_to_end.repository.ArchivedUserRepository;
 import com.ayush.end_to_end.repository.UserRepository;
+import com.ayush.end_to_end.repository.UserTombstoneRepository;
+import com.ayush.end_to_end.stats.UserCounters;
+import com.ayush.end_to_end.stats.UserCountersMaintainer;
+import com.ayush.end_to_end.util.AfterCommit;
+import com.ayush.end_to_end.util.ConstraintViolations;
+import com.ayush.end_to_end.util.UserETags;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
+@Timed(value = "users.service", description = "UserService method execution time")
 public class UserServiceImpl implements service.UserService {
     
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
@@ -23,78 +83,498 @@ public class UserServiceImpl implements service.UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserTombstoneRepository userTombstoneRepository;
+    
+    @Autowired
+    private ArchivedUserRepository archivedUserRepository;
+    
     @Autowired
     private UserMapper userMapper;
     
+    @Autowired
+    private UserLookupCache userLookupCache;
+    
+    @Autowired
+    private UserNameTrigramIndex userNameTrigramIndex;
+    
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private UserTombstoneStore userTombstoneStore;
+    
+    @Autowired
+    private UserArchiver userArchiver;
+    
+    @Autowired
+    private UserCounters userCounters;
+    
+    @Autowired
+    private UserCountersMaintainer userCountersMaintainer;
+    
+    @Autowired
+    private UserPagination userPagination;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${users.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+    
+    @Value("${users.bulk.update-chunk-size:1000}")
+    private int bulkUpdateChunkSize;
+    
+    @Value("${users.bulk.max-items:10000}")
+    private int bulkMaxItems;
+    
+    @Value("${users.batch.max-items:500}")
+    private int batchMaxItems;
+    
+    @Value("${users.batch.query-chunk-size:100}")
+    private int batchQueryChunkSize;
+    
+    @Value("${users.changes.settle-time:5s}")
+    private Duration changesSettleTime;
+    
+    // Single round trip: no existence check, the unique constraint on users.email decides.
+    // Only emails the filter cannot rule out are also checked against the archive.
     @Override
     public UserDto createUser(UserDto userDto) {
         log.info("Starting user creation process for email: {}", userDto.getEmail());
-        
-        // Check if user with email already exists
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            log.info("User creation failed - email already exists: {}", userDto.getEmail());
-            throw new UserAlreadyExistsException(userDto.getEmail());
-        }
-        
-        log.info("Email validation passed, proceeding with user creation");
         User user = userMapper.toEntity(userDto);
         user.setIsActive(true);
-        User savedUser = userRepository.save(user);
+        User savedUser = saveAndFlushUnique(user);
+        rejectArchivedEmail(savedUser.getEmail());
+        emailBloomFilter.put(savedUser.getEmail());
+        indexNameAfterCommit(savedUser);
+        userLookupCache.forgetMissing(savedUser.getId(), savedUser.getEmail());
+        userCounters.recordCreated(savedUser.getCreatedAt());
         log.info("User created successfully with ID: {} and email: {}", savedUser.getId(), savedUser.getEmail());
         return userMapper.toDto(savedUser);
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserDto createUser(UserDto userDto, String idempotencyKey) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        if (idempotencyKey == null) {
+            return transactionTemplate.execute(status -> createUser(userDto));
+        }
+        String requestHash = idempotencyStore.requestHash(idempotencyKey, userDto);
+        Optional<UserDto> storedResult = idempotencyStore.findResult(idempotencyKey, requestHash);
+        if (storedResult.isPresent()) {
+            return storedResult.get();
+        }
+        try {
+            // The key is recorded in the same transaction, so it exists exactly when the user does
+            return transactionTemplate.execute(status -> {
+                UserDto createdUser = createUser(userDto);
+                idempotencyStore.record(idempotencyKey, requestHash, createdUser);
+                return createdUser;
+            });
+        } catch (UserAlreadyExistsException | DataIntegrityViolationException ex) {
+            // A concurrent retry with the same key may have committed first; answer with its result
+            log.info("Create with idempotency key {} failed, checking for a concurrent result", idempotencyKey);
+            return idempotencyStore.findResult(idempotencyKey, requestHash).orElseThrow(() -> ex);
+        }
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkCreateResult createUsers(Iterator<UserDto> userDtos) {
+        log.info("Starting bulk user creation with chunk size: {}", bulkChunkSize);
+        BulkCreateResult result = new BulkCreateResult();
+        List<IndexedUser> chunk = new ArrayList<>(bulkChunkSize);
+        int index = 0;
+        while (userDtos.hasNext()) {
+            chunk.add(new IndexedUser(index++, userDtos.next()));
+            if (chunk.size() == bulkChunkSize) {
+                createChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            createChunk(chunk, result);
+        }
+        result.getItems().sort(Comparator.comparingInt(BulkItemResult::getIndex));
+        log.info("Bulk user creation completed - created: {}, conflicts: {}, invalid: {}",
+                result.getCreated(), result.getConflicts(), result.getInvalid());
+        return result;
+    }
+    
+    // SUPPORTS: a cache hit must not open a transaction or borrow a connection
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDto getUserById(Long id) {
         log.info("Fetching user by ID: {}", id);
-        User user = userRepository.findActiveUserById(id)
+        UserDto cachedUser = userLookupCache.getById(id);
+        if (cachedUser != null) {
+            log.info("User served from cache for ID: {}", id);
+            return cachedUser;
+        }
+        if (userLookupCache.isMissingId(id)) {
+            log.info("User not found for ID: {} (cached)", id);
+            throw new UserNotFoundException(id);
+        }
+        // Concurrent misses for the same id share this query
+        UserDto userDto = userLookupCache.loadById(id, () -> userRepository.findActiveUserDtoById(id)
                 .orElseThrow(() -> {
                     log.info("User not found for ID: {}", id);
+                    userLookupCache.putMissingId(id);
+                    return new UserNotFoundException(id);
+                }));
+        log.info("User found for ID: {} - email: {}", id, userDto.getEmail());
+        return userDto;
+    }
+    
+    // Answers conditional GETs from the cache or a two-column lookup instead of the full row
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UserVersion getUserVersion(Long id) {
+        UserDto cachedUser = userLookupCache.getById(id);
+        if (cachedUser != null) {
+            log.info("User version served from cache for ID: {}", id);
+            return new UserVersion(id, cachedUser.getUpdatedAt());
+        }
+        if (userLookupCache.isMissingId(id)) {
+            log.info("User not found for version lookup - ID: {} (cached)", id);
+            throw new UserNotFoundException(id);
+        }
+        return userRepository.findActiveUserVersionById(id)
+                .orElseThrow(() -> {
+                    log.info("User not found for version lookup - ID: {}", id);
+                    userLookupCache.putMissingId(id);
                     return new UserNotFoundException(id);
                 });
-        log.info("User found for ID: {} - email: {}", id, user.getEmail());
-        return userMapper.toDto(user);
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDto getUserByEmail(String email) {
         log.info("Fetching user by email: {}", email);
-        User user = userRepository.findActiveUserByEmail(email)
+        UserDto cachedUser = userLookupCache.getByEmail(email);
+        if (cachedUser != null) {
+            log.info("User served from cache for email: {}", email);
+            return cachedUser;
+        }
+        if (userLookupCache.isMissingEmail(email)) {
+            log.info("User not found for email: {} (cached)", email);
+            throw new UserNotFoundException("email", email);
+        }
+        UserDto userDto = userLookupCache.loadByEmail(email, () -> userRepository.findActiveUserDtoByEmail(email)
                 .orElseThrow(() -> {
                     log.info("User not found for email: {}", email);
+                    userLookupCache.putMissingEmail(email);
                     return new UserNotFoundException("email", email);
-                });
-        log.info("User found for email: {} - ID: {}", email, user.getId());
-        return userMapper.toDto(user);
+                }));
+        log.info("User found for email: {} - ID: {}", email, userDto.getId());
+        return userDto;
+    }
+    
+    // Cached users, and ids or emails recently found missing, are answered without a
+    // transaction; the misses are loaded together in one read-only transaction, a bounded
+    // IN (...) query per chunk of ids or emails. That transaction runs on the primary: its
+    // results fill the shared lookup and negative caches, which a lagging replica would
+    // fill with users or 404s that writes have already evicted.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserBatchResult getUsersBatch(List<Long> ids, List<String> emails) {
+        List<Long> requestedIds = ids == null ? List.of()
+                : ids.stream().filter(Objects::nonNull).distinct().toList();
+        // Emails are matched case-insensitively, like the lookup cache; the first spelling is reported
+        Map<String, String> requestedEmails = new LinkedHashMap<>();
+        if (emails != null) {
+            emails.stream().filter(Objects::nonNull).forEach(email -> requestedEmails.putIfAbsent(emailKey(email), email));
+        }
+        if (requestedIds.isEmpty() && requestedEmails.isEmpty()) {
+            throw new InvalidRequestException("At least one of ids or emails must be given");
+        }
+        if (requestedIds.size() + requestedEmails.size() > batchMaxItems) {
+            throw new InvalidRequestException("Batch lookups are limited to " + batchMaxItems + " ids and emails");
+        }
+        log.info("Fetching batch of {} ids and {} emails", requestedIds.size(), requestedEmails.size());
+        
+        Map<Long, UserDto> foundById = new HashMap<>();
+        Map<String, UserDto> foundByEmail = new HashMap<>();
+        List<Long> idMisses = new ArrayList<>();
+        List<String> emailMisses = new ArrayList<>();
+        for (Long id : requestedIds) {
+            UserDto cachedUser = userLookupCache.getById(id);
+            if (cachedUser != null) {
+                foundById.put(id, cachedUser);
+            } else if (!userLookupCache.isMissingId(id)) {
+                idMisses.add(id);
+            }
+        }
+        for (Map.Entry<String, String> email : requestedEmails.entrySet()) {
+            UserDto cachedUser = userLookupCache.getByEmail(email.getValue());
+            if (cachedUser != null) {
+                foundByEmail.put(email.getKey(), cachedUser);
+            } else if (!userLookupCache.isMissingEmail(email.getValue())) {
+                emailMisses.add(email.getValue());
+            }
+        }
+        if (!idMisses.isEmpty() || !emailMisses.isEmpty()) {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            ReadRouting.onPrimary(() -> transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < idMisses.size(); from += batchQueryChunkSize) {
+                    List<Long> chunk = idMisses.subList(from, Math.min(from + batchQueryChunkSize, idMisses.size()));
+                    for (UserDto user : userRepository.findActiveUserDtosByIdIn(chunk)) {
+                        foundById.put(user.getId(), user);
+                        userLookupCache.putAfterCommit(user);
+                    }
+                }
+                for (int from = 0; from < emailMisses.size(); from += batchQueryChunkSize) {
+                    List<String> chunk = emailMisses.subList(from, Math.min(from + batchQueryChunkSize, emailMisses.size()));
+                    for (UserDto user : userRepository.findActiveUserDtosByEmailIn(chunk)) {
+                        foundByEmail.put(emailKey(user.getEmail()), user);
+                        userLookupCache.putAfterCommit(user);
+                    }
+                }
+            }));
+            idMisses.stream().filter(id -> !foundById.containsKey(id)).forEach(userLookupCache::putMissingId);
+            emailMisses.stream().filter(email -> !foundByEmail.containsKey(emailKey(email)))
+                    .forEach(userLookupCache::putMissingEmail);
+        }
+        
+        UserBatchResult result = new UserBatchResult();
+        Set<Long> listed = new HashSet<>();
+        for (Long id : requestedIds) {
+            UserDto user = foundById.get(id);
+            if (user == null) {
+                result.getMissingIds().add(id);
+            } else if (listed.add(user.getId())) {
+                result.getUsers().add(user);
+            }
+        }
+        for (Map.Entry<String, String> email : requestedEmails.entrySet()) {
+            UserDto user = foundByEmail.get(email.getKey());
+            if (user == null) {
+                result.getMissingEmails().add(email.getValue());
+            } else if (listed.add(user.getId())) {
+                result.getUsers().add(user);
+            }
+        }
+        log.info("Batch lookup completed - {} users found, {} cache misses queried, {} missing",
+                result.getUsers().size(), idMisses.size() + emailMisses.size(),
+                result.getMissingIds().size() + result.getMissingEmails().size());
+        return result;
+    }
+    
+    // Served from the materialized counters; only a call that comes before the startup
+    // reconciliation has finished counts in the database
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserStats getUserStats() {
+        if (!userCounters.isReady()) {
+            userCountersMaintainer.reconcile();
+        }
+        UserStats stats = userCounters.snapshot();
+        log.info("User stats served - total: {}, active: {}, inactive: {}",
+                stats.getTotal(), stats.getActive(), stats.getInactive());
+        return stats;
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
+        userPagination.requireUnpagedAllowed();
         log.info("Fetching all users from database");
-        List<User> users = userRepository.findAll();
+        List<UserDto> users = userRepository.findAllUserDtos();
         log.info("Retrieved {} total users from database", users.size());
-        return userMapper.toDtoList(users);
+        return users;
+    }
+    
+    // Sparse fieldsets read only the selected columns; the full set keeps the DTO projection
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> getAllUsers(UserFields fields) {
+        if (fields.isAll()) {
+            return getAllUsers();
+        }
+        userPagination.requireUnpagedAllowed();
+        log.info("Fetching all users from database with fields: {}", fields);
+        List<UserDto> users = userRepository.findUserDtos(fields, false, 0, -1);
+        log.info("Retrieved {} total users from database", users.size());
+        return users;
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getActiveUsers() {
+        userPagination.requireUnpagedAllowed();
         log.info("Fetching active users from database");
-        List<User> users = userRepository.findByIsActiveTrue();
+        List<UserDto> users = userRepository.findActiveUserDtos();
+        log.info("Retrieved {} active users from database", users.size());
+        return users;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> getActiveUsers(UserFields fields) {
+        if (fields.isAll()) {
+            return getActiveUsers();
+        }
+        userPagination.requireUnpagedAllowed();
+        log.info("Fetching active users from database with fields: {}", fields);
+        List<UserDto> users = userRepository.findUserDtos(fields, true, 0, -1);
         log.info("Retrieved {} active users from database", users.size());
-        return userMapper.toDtoList(users);
+        return users;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getUsersPage(String after, Integer limit) {
+        long afterId = userPagination.decodeAfter(after);
+        int pageLimit = userPagination.resolvePageLimit(limit);
+        log.info("Fetching users page after ID: {} with limit: {}", afterId, pageLimit);
+        List<UserDto> users = userRepository.findUserDtosAfter(afterId, Limit.of(pageLimit + 1));
+        return userPagination.toPage(users, pageLimit);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<UserDto> searchUsersByName(String name) {
-        log.info("Searching users by name: {}", name);
-        List<User> users = userRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(name, name);
+    public CursorPage<UserDto> getUsersPage(String after, Integer limit, UserFields fields) {
+        if (fields.isAll()) {
+            return getUsersPage(after, limit);
+        }
+        long afterId = userPagination.decodeAfter(after);
+        int pageLimit = userPagination.resolvePageLimit(limit);
+        log.info("Fetching users page after ID: {} with limit: {} and fields: {}", afterId, pageLimit, fields);
+        List<UserDto> users = userRepository.findUserDtos(fields, false, afterId, pageLimit + 1);
+        return userPagination.toPage(users, pageLimit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getActiveUsersPage(String after, Integer limit) {
+        long afterId = userPagination.decodeAfter(after);
+        int pageLimit = userPagination.resolvePageLimit(limit);
+        log.info("Fetching active users page after ID: {} with limit: {}", afterId, pageLimit);
+        List<UserDto> users = userRepository.findActiveUserDtosAfter(afterId, Limit.of(pageLimit + 1));
+        return userPagination.toPage(users, pageLimit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getActiveUsersPage(String after, Integer limit, UserFields fields) {
+        if (fields.isAll()) {
+            return getActiveUsersPage(after, limit);
+        }
+        long afterId = userPagination.decodeAfter(after);
+        int pageLimit = userPagination.resolvePageLimit(limit);
+        log.info("Fetching active users page after ID: {} with limit: {} and fields: {}", afterId, pageLimit, fields);
+        List<UserDto> users = userRepository.findUserDtos(fields, true, afterId, pageLimit + 1);
+        return userPagination.toPage(users, pageLimit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> searchUsersByName(String name, Integer limit) {
+        int resultLimit = userPagination.resolvePageLimit(limit);
+        if (!UserNameTrigramIndex.supports(name) || !userNameTrigramIndex.isReady()) {
+            // Fewer than three characters produce no trigram, so only a LIKE scan can answer
+            log.info("Searching users by name in database: {}", name);
+            List<UserDto> users = userRepository.searchUserDtosByName(name, Limit.of(resultLimit));
+            log.info("Found {} users matching name: {}", users.size(), name);
+            return users;
+        }
+        
+        log.info("Searching users by name in trigram index: {}", name);
+        List<Long> rankedIds = userNameTrigramIndex.search(name, resultLimit);
+        Map<Long, UserDto> usersById = userRepository.findUserDtosByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+        // Keep the index ranking and drop rows that changed since they were indexed
+        List<UserDto> users = rankedIds.stream()
+                .map(usersById::get)
+                .filter(user -> user != null && UserNameTrigramIndex.matches(name, user.getFirstName(), user.getLastName()))
+                .toList();
         log.info("Found {} users matching name: {}", users.size(), name);
-        return userMapper.toDtoList(users);
+        return users;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserChange> getChanges(String after, Integer limit) {
+        return getChanges(after, limit, UserFields.ALL);
+    }
+    
+    // Upserts and tombstones are merged in (changedAt, id) order. Both queries fetch limit + 1
+    // rows, which is enough for the merged page and its hasMore. Only changes older than the
+    // settle time are served, so a slow transaction cannot commit behind a consumer's cursor.
+    // Sparse fieldsets read only the selected columns, plus the (updatedAt, id) keyset.
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserChange> getChanges(String after, Integer limit, UserFields fields) {
+        UserPagination.ChangePosition position = userPagination.decodeChangesAfter(after);
+        int pageLimit = userPagination.resolvePageLimit(limit);
+        if (after != null && !userTombstoneStore.isRetained(position.at())) {
+            log.info("Rejected change cursor older than tombstone retention: {}", position.at());
+            throw new ChangeCursorExpiredException(after);
+        }
+        LocalDateTime before = LocalDateTime.now().minus(changesSettleTime);
+        log.info("Fetching user changes after: {} / ID: {} with limit: {} and fields: {}",
+                position.at(), position.id(), pageLimit, fields);
+        List<UserDto> upserted = fields.isAll()
+                ? userRepository.findUserDtosChangedAfter(position.at(), position.id(), before, Limit.of(pageLimit + 1))
+                : userRepository.findUserDtosChangedAfter(fields, position.at(), position.id(), before, pageLimit + 1);
+        List<UserChange> changes = new ArrayList<>();
+        upserted.forEach(user -> changes.add(UserChange.upserted(user)));
+        userTombstoneRepository.findDeletedAfter(position.at(), position.id(), before, Limit.of(pageLimit + 1))
+                .forEach(tombstone -> changes.add(UserChange.deleted(tombstone.getUserId(), tombstone.getDeletedAt())));
+        changes.sort(Comparator.comparing(UserChange::getChangedAt).thenComparing(UserChange::getId));
+        return userPagination.toChangesPage(changes, pageLimit, position);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<UserDto> consumer) {
+        log.info("Starting user export");
+        long exported = 0;
+        try (Stream<User> users = userRepository.streamAllOrderedById()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(userMapper.toDto(iterator.next()));
+                exported++;
+                // Detach what has already been written so the persistence context stays bounded
+                if (exported % UserRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("User export completed - {} users exported", exported);
+        return exported;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<UserDto> consumer, UserFields fields) {
+        if (fields.isAll()) {
+            return exportUsers(consumer);
+        }
+        log.info("Starting user export with fields: {}", fields);
+        long exported = 0;
+        // Tuples are not managed entities, so there is no persistence context to clear
+        try (Stream<UserDto> users = userRepository.streamUserDtos(fields)) {
+            Iterator<UserDto> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                exported++;
+            }
+        }
+        log.info("User export completed - {} users exported", exported);
+        return exported;
     }
     
     @Override
@@ -106,39 +586,40 @@ public class UserServiceImpl implements service.UserService {
                     log.info("User not found for update - ID: {}", id);
                     return new UserNotFoundException(id);
                 });
-        
-        log.info("Found existing user for update - ID: {}, current email: {}", id, existingUser.getEmail());
-        
-        // Check if email is being changed and if it already exists
-        if (!existingUser.getEmail().equals(userDto.getEmail()) && 
-            userRepository.existsByEmailAndIdNot(userDto.getEmail(), id)) {
-            log.info("User update failed - new email already exists: {}", userDto.getEmail());
-            throw new UserAlreadyExistsException(userDto.getEmail());
-        }
-        
-        log.info("Email validation passed, proceeding with user update");
-        
-        // Update fields
-        existingUser.setFirstName(userDto.getFirstName());
-        existingUser.setLastName(userDto.getLastName());
-        existingUser.setEmail(userDto.getEmail());
-        existingUser.setPhoneNumber(userDto.getPhoneNumber());
-        existingUser.setAddress(userDto.getAddress());
-        
-        User updatedUser = userRepository.save(existingUser);
-        log.info("User updated successfully - ID: {}, email: {}", updatedUser.getId(), updatedUser.getEmail());
-        return userMapper.toDto(updatedUser);
+        return applyUpdate(existingUser, userDto);
     }
     
     @Override
-    public void deleteUser(Long id) {
-        log.info("Starting user deletion process for ID: {}", id);
-        User user = userRepository.findById(id)
+    public UserDto updateUser(Long id, UserDto userDto, String ifMatch) {
+        if (ifMatch == null) {
+            return updateUser(id, userDto);
+        }
+        log.info("Starting conditional user update process for ID: {}", id);
+        User existingUser = userRepository.findActiveUserByIdForUpdate(id)
                 .orElseThrow(() -> {
-                    log.info("User not found for deletion - ID: {}", id);
+                    log.info("User not found for update - ID: {}", id);
                     return new UserNotFoundException(id);
                 });
+        if (!UserETags.matches(ifMatch, UserETags.of(id, existingUser.getUpdatedAt()))) {
+            log.info("User update rejected - If-Match {} is stale for ID: {}", ifMatch, id);
+            throw new PreconditionFailedException(id);
+        }
+        return applyUpdate(existingUser, userDto);
+    }
+    
+    @Override
+    public void deleteUser(Long id) {
+        log.info("Starting user deletion process for ID: {}", id);
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            deleteArchivedUser(id);
+            return;
+        }
         userRepository.delete(user);
+        userTombstoneStore.record(id, user.getEmail(), now());
+        userLookupCache.evict(id, user.getEmail());
+        userCounters.recordDeleted(Boolean.TRUE.equals(user.getIsActive()), user.getCreatedAt());
+        AfterCommit.run(() -> userNameTrigramIndex.remove(id));
         log.info("User deleted successfully - ID: {}", id);
     }
     
@@ -152,6 +633,8 @@ public class UserServiceImpl implements service.UserService {
                 });
         user.setIsActive(false);
         userRepository.save(user);
+        userLookupCache.evict(id, user.getEmail());
+        userCounters.recordDeactivated(1);
         log.info("User deactivated successfully - ID: {}", id);
     }
     
@@ -159,12 +642,421 @@ public class UserServiceImpl implements service.UserService {
     public void activateUser(Long id) {
         log.info("Starting user activation process for ID: {}", id);
         User user = userRepository.findById(id)
+                .or(() -> restoreArchivedUser(id))
                 .orElseThrow(() -> {
                     log.info("User not found for activation - ID: {}", id);
                     return new UserNotFoundException(id);
                 });
+        boolean wasActive = Boolean.TRUE.equals(user.getIsActive());
         user.setIsActive(true);
         userRepository.save(user);
+        userLookupCache.evict(id, user.getEmail());
+        if (!wasActive) {
+            userCounters.recordActivated(1);
+        }
         log.info("User activated successfully - ID: {}", id);
     }
+    
+    // Criteria-based activation picks up inactive users; the UPDATE skips rows already active.
+    // Archived users that match are moved back first, still inactive, so the UPDATE sees them.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult activateUsers(BulkUserActionRequest request) {
+        log.info("Starting bulk user activation");
+        BulkUpdateResult restored;
+        try {
+            restored = applyInChunks(request, archivedUserKeys(), keys -> userArchiver.restore(idsOf(keys)));
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isViolationOf(ex, User.EMAIL_UNIQUE_CONSTRAINT)) {
+                throw ex;
+            }
+            // A concurrent create committed an archived email after the restore checked it.
+            // Earlier chunks are already restored; the second pass skips that user like any
+            // other whose email is taken.
+            log.info("Bulk restore hit a taken email, restoring the remaining archived users again");
+            restored = applyInChunks(request, archivedUserKeys(), keys -> userArchiver.restore(idsOf(keys)));
+        }
+        log.info("Bulk activation restored {} archived users", restored.getAffected());
+        BulkUpdateResult result = applyInChunks(request, liveUserKeys(false), keys -> {
+            int activated = userRepository.updateActiveByIdIn(idsOf(keys), true, now());
+            userCounters.recordActivated(activated);
+            return activated;
+        });
+        log.info("Bulk activation completed - matched: {}, activated: {}, chunks: {}",
+                result.getMatched(), result.getAffected(), result.getChunks());
+        return result;
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult deactivateUsers(BulkUserActionRequest request) {
+        log.info("Starting bulk user deactivation");
+        BulkUpdateResult result = applyInChunks(request, liveUserKeys(true), keys -> {
+            int deactivated = userRepository.updateActiveByIdIn(idsOf(keys), false, now());
+            userCounters.recordDeactivated(deactivated);
+            return deactivated;
+        });
+        log.info("Bulk deactivation completed - matched: {}, deactivated: {}, chunks: {}",
+                result.getMatched(), result.getAffected(), result.getChunks());
+        return result;
+    }
+    
+    // By criteria only users that have been inactive since before the cutoff are deleted;
+    // an explicit id list deletes regardless of state, like DELETE /users/{id}. Both reach
+    // archived users too.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult deleteUsers(BulkUserActionRequest request) {
+        log.info("Starting bulk user deletion");
+        BulkUpdateResult result = applyInChunks(request, liveUserKeys(false),
+                keys -> deleteChunk(keys, userRepository::deleteByIdIn));
+        result.add(applyInChunks(request, archivedUserKeys(),
+                keys -> deleteChunk(keys, archivedUserRepository::deleteByIdIn)));
+        log.info("Bulk deletion completed - matched: {}, deleted: {}, chunks: {}",
+                result.getMatched(), result.getAffected(), result.getChunks());
+        return result;
+    }
+    
+    private UserDto applyUpdate(User existingUser, UserDto userDto) {
+        Long id = existingUser.getId();
+        log.info("Found existing user for update - ID: {}, current email: {}", id, existingUser.getEmail());
+        
+        // Check if email is being changed and if it already exists
+        if (!existingUser.getEmail().equals(userDto.getEmail()) && isEmailTaken(userDto.getEmail(), id)) {
+            log.info("User update failed - new email already exists: {}", userDto.getEmail());
+            throw new UserAlreadyExistsException(userDto.getEmail());
+        }
+        
+        log.info("Email validation passed, proceeding with user update");
+        String previousEmail = existingUser.getEmail();
+        
+        // Update fields
+        existingUser.setFirstName(userDto.getFirstName());
+        existingUser.setLastName(userDto.getLastName());
+        existingUser.setEmail(userDto.getEmail());
+        existingUser.setPhoneNumber(userDto.getPhoneNumber());
+        existingUser.setAddress(userDto.getAddress());
+        
+        User updatedUser = saveAndFlushUnique(existingUser);
+        if (!previousEmail.equals(updatedUser.getEmail())) {
+            rejectArchivedEmail(updatedUser.getEmail());
+        }
+        emailBloomFilter.put(updatedUser.getEmail());
+        log.info("User updated successfully - ID: {}, email: {}", updatedUser.getId(), updatedUser.getEmail());
+        indexNameAfterCommit(updatedUser);
+        UserDto updatedDto = userMapper.toDto(updatedUser);
+        // The old email key must go too, otherwise lookups by it keep returning this user
+        userLookupCache.evict(id, previousEmail, updatedUser.getEmail());
+        userLookupCache.putAfterCommit(updatedDto);
+        return updatedDto;
+    }
+    
+    // The filter answers most checks for new emails without a query; only possible matches
+    // go to the database
+    private boolean isEmailTaken(String email, Long excludedId) {
+        if (emailBloomFilter.definitelyAbsent(email)) {
+            log.info("Email filter rules out existing user for email: {}", email);
+            return false;
+        }
+        boolean exists = excludedId == null
+                ? userRepository.existsByEmail(email)
+                : userRepository.existsByEmailAndIdNot(email, excludedId);
+        emailBloomFilter.recordDatabaseCheck(exists);
+        return exists;
+    }
+    
+    // The unique constraint on users.email is the source of truth, so flush here and report
+    // its violation as a conflict instead of failing at commit
+    private User saveAndFlushUnique(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isViolationOf(ex, User.EMAIL_UNIQUE_CONSTRAINT)) {
+                throw ex;
+            }
+            log.info("Unique constraint rejected email: {}", user.getEmail());
+            throw new UserAlreadyExistsException(user.getEmail());
+        }
+    }
+    
+    // Archived users keep their email. Checked after the row is written: an archive run that
+    // moves the same email concurrently has then either committed, and the locking read sees
+    // it, or still holds the live row and the insert failed on the unique constraint.
+    private void rejectArchivedEmail(String email) {
+        if (emailBloomFilter.definitelyAbsent(email)) {
+            return;
+        }
+        boolean archived = !archivedUserRepository.findByEmailInForShare(List.of(email)).isEmpty();
+        emailBloomFilter.recordDatabaseCheck(archived);
+        if (archived) {
+            log.info("Email is reserved by an archived user: {}", email);
+            throw new UserAlreadyExistsException(email);
+        }
+    }
+    
+    private void indexNameAfterCommit(User user) {
+        Long id = user.getId();
+        String firstName = user.getFirstName();
+        String lastName = user.getLastName();
+        AfterCommit.run(() -> userNameTrigramIndex.put(id, firstName, lastName));
+    }
+    
+    // Each chunk commits on its own so a conflict or failure never rolls back earlier chunks
+    private void createChunk(List<IndexedUser> chunk, BulkCreateResult result) {
+        List<IndexedUser> candidates = new ArrayList<>(chunk.size());
+        Set<String> chunkEmails = new HashSet<>();
+        for (IndexedUser item : chunk) {
+            Set<ConstraintViolation<UserDto>> violations = validator.validate(item.dto());
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                result.add(BulkItemResult.invalid(item.index(), item.dto().getEmail(), message));
+            } else if (!chunkEmails.add(emailKey(item.dto().getEmail()))) {
+                result.add(BulkItemResult.conflict(item.index(), item.dto().getEmail()));
+            } else {
+                candidates.add(item);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            List<BulkItemResult> chunkResults = transactionTemplate.execute(status -> insertChunk(candidates));
+            chunkResults.forEach(result::add);
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent writer took one of the emails between the check and the insert;
+            // fall back to one transaction per item so only the clashing rows are reported.
+            log.info("Bulk chunk hit a constraint violation, retrying {} items individually", candidates.size());
+            for (IndexedUser item : candidates) {
+                try {
+                    result.add(transactionTemplate.execute(status -> insertChunk(List.of(item)).get(0)));
+                } catch (DataIntegrityViolationException itemEx) {
+                    result.add(BulkItemResult.conflict(item.index(), item.dto().getEmail()));
+                }
+            }
+        }
+    }
+    
+    private List<BulkItemResult> insertChunk(List<IndexedUser> candidates) {
+        // Only emails the filter cannot rule out need to be looked up, in both tables: archived
+        // users keep their email. Matches are keyed case-insensitively like the column collation,
+        // so a case variant is a conflict here rather than a unique violation on insert.
+        List<String> possibleMatches = candidates.stream()
+                .map(item -> item.dto().getEmail())
+                .filter(email -> !emailBloomFilter.definitelyAbsent(email))
+                .toList();
+        Set<String> existingEmails = new HashSet<>();
+        if (!possibleMatches.isEmpty()) {
+            userRepository.findExistingEmails(possibleMatches)
+                    .forEach(email -> existingEmails.add(emailKey(email)));
+            archivedUserRepository.findByEmailInForShare(possibleMatches)
+                    .forEach(archived -> existingEmails.add(emailKey(archived.getEmail())));
+        }
+        
+        List<BulkItemResult> results = new ArrayList<>(candidates.size());
+        List<IndexedUser> inserted = new ArrayList<>(candidates.size());
+        List<User> users = new ArrayList<>(candidates.size());
+        for (IndexedUser item : candidates) {
+            if (existingEmails.contains(emailKey(item.dto().getEmail()))) {
+                results.add(BulkItemResult.conflict(item.index(), item.dto().getEmail()));
+                continue;
+            }
+            User user = userMapper.toEntity(item.dto());
+            user.setId(null);
+            user.setIsActive(true);
+            inserted.add(item);
+            users.add(user);
+        }
+        
+        List<User> savedUsers = userRepository.saveAll(users);
+        userRepository.flush();
+        for (int i = 0; i < savedUsers.size(); i++) {
+            IndexedUser item = inserted.get(i);
+            results.add(BulkItemResult.created(item.index(), item.dto().getEmail(), savedUsers.get(i).getId()));
+            emailBloomFilter.put(savedUsers.get(i).getEmail());
+            indexNameAfterCommit(savedUsers.get(i));
+            userLookupCache.forgetMissing(savedUsers.get(i).getId(), savedUsers.get(i).getEmail());
+            userCounters.recordCreated(savedUsers.get(i).getCreatedAt());
+        }
+        entityManager.clear();
+        log.info("Bulk chunk committed - {} users inserted, {} conflicts", savedUsers.size(), results.size() - savedUsers.size());
+        return results;
+    }
+    
+    // Runs the set-based statement one bounded chunk per transaction, so row locks are held
+    // for a single chunk only and a failure never rolls back chunks that already committed.
+    // The source locks the chunk's rows: a user reactivated or updated concurrently is either
+    // selected with its new state or left out, never deleted or counted on a stale one.
+    private BulkUpdateResult applyInChunks(BulkUserActionRequest request, UserKeySource source,
+                                           Function<List<UserKeyProjection>, Integer> statement) {
+        validate(request);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BulkUpdateResult result = new BulkUpdateResult();
+        if (request.getIds() != null) {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+            for (int from = 0; from < ids.size(); from += bulkUpdateChunkSize) {
+                List<Long> chunkIds = ids.subList(from, Math.min(from + bulkUpdateChunkSize, ids.size()));
+                ChunkOutcome outcome = transactionTemplate.execute(status ->
+                        applyToChunk(source.byIds(chunkIds), statement));
+                result.addChunk(outcome.matched(), outcome.affected());
+            }
+            return result;
+        }
+        
+        // Keyset over the matching rows: the statement usually moves a row out of the
+        // criteria, but seeking past the last id also terminates when it does not
+        long afterId = 0;
+        while (true) {
+            long after = afterId;
+            List<UserKeyProjection> keys = new ArrayList<>();
+            ChunkOutcome outcome = transactionTemplate.execute(status -> {
+                keys.addAll(source.updatedBefore(request.getUpdatedBefore(), after, Limit.of(bulkUpdateChunkSize)));
+                return applyToChunk(keys, statement);
+            });
+            if (keys.isEmpty()) {
+                return result;
+            }
+            result.addChunk(outcome.matched(), outcome.affected());
+            afterId = keys.get(keys.size() - 1).id();
+        }
+    }
+    
+    private ChunkOutcome applyToChunk(List<UserKeyProjection> keys, Function<List<UserKeyProjection>, Integer> statement) {
+        if (keys.isEmpty()) {
+            return new ChunkOutcome(0, 0);
+        }
+        int affected = statement.apply(keys);
+        // Bulk statements bypass the persistence context and entity callbacks, so every
+        // derived structure has to be told about the rows explicitly
+        entityManager.clear();
+        keys.forEach(key -> userLookupCache.evict(key.id(), key.email()));
+        log.info("Bulk chunk committed - {} users matched, {} affected", keys.size(), affected);
+        return new ChunkOutcome(keys.size(), affected);
+    }
+    
+    private int deleteChunk(List<UserKeyProjection> keys, Function<List<Long>, Integer> delete) {
+        int deleted = delete.apply(idsOf(keys));
+        LocalDateTime deletedAt = now();
+        keys.forEach(key -> userTombstoneStore.record(key.id(), key.email(), deletedAt));
+        // Write the tombstones before the chunk clears the persistence context
+        entityManager.flush();
+        keys.forEach(key -> AfterCommit.run(() -> userNameTrigramIndex.remove(key.id())));
+        keys.forEach(key -> userCounters.recordDeleted(Boolean.TRUE.equals(key.isActive()), key.createdAt()));
+        return deleted;
+    }
+    
+    private UserKeySource liveUserKeys(boolean active) {
+        return new UserKeySource() {
+            @Override
+            public List<UserKeyProjection> byIds(List<Long> ids) {
+                return userRepository.findUserKeysByIdInForUpdate(ids);
+            }
+            
+            @Override
+            public List<UserKeyProjection> updatedBefore(LocalDateTime before, long afterId, Limit limit) {
+                return userRepository.findUserKeysByActiveAndUpdatedBeforeForUpdate(active, before, afterId, limit);
+            }
+        };
+    }
+    
+    // Archived users are all inactive, so they only ever match inactive criteria
+    private UserKeySource archivedUserKeys() {
+        return new UserKeySource() {
+            @Override
+            public List<UserKeyProjection> byIds(List<Long> ids) {
+                return archivedUserRepository.findUserKeysByIdInForUpdate(ids);
+            }
+            
+            @Override
+            public List<UserKeyProjection> updatedBefore(LocalDateTime before, long afterId, Limit limit) {
+                return archivedUserRepository.findUserKeysByUpdatedBeforeForUpdate(before, afterId, limit);
+            }
+        };
+    }
+    
+    // Archived users are moved back inactive and then activated like any other user
+    private Optional<User> restoreArchivedUser(Long id) {
+        Optional<ArchivedUser> archived = archivedUserRepository.findById(id);
+        if (archived.isEmpty()) {
+            return Optional.empty();
+        }
+        // Only archives made before emails stayed reserved can hold an email taken since, or a
+        // create racing the restore, which the unique constraint then rejects
+        int moved;
+        try {
+            moved = userArchiver.restore(List.of(id));
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isViolationOf(ex, User.EMAIL_UNIQUE_CONSTRAINT)) {
+                throw ex;
+            }
+            moved = 0;
+        }
+        if (moved == 0) {
+            log.info("Archived user cannot be restored, email taken since - ID: {}, email: {}",
+                    id, archived.get().getEmail());
+            throw new UserAlreadyExistsException(archived.get().getEmail());
+        }
+        User user = userRepository.findById(id).orElseThrow();
+        emailBloomFilter.put(user.getEmail());
+        indexNameAfterCommit(user);
+        log.info("Archived user restored - ID: {}", id);
+        return Optional.of(user);
+    }
+    
+    private void deleteArchivedUser(Long id) {
+        ArchivedUser archived = archivedUserRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.info("User not found for deletion - ID: {}", id);
+                    return new UserNotFoundException(id);
+                });
+        archivedUserRepository.delete(archived);
+        userTombstoneStore.record(id, archived.getEmail(), now());
+        userCounters.recordDeleted(false, archived.getCreatedAt());
+        log.info("Archived user deleted successfully - ID: {}", id);
+    }
+    
+    private void validate(BulkUserActionRequest request) {
+        if ((request.getIds() == null) == (request.getUpdatedBefore() == null)) {
+            throw new InvalidRequestException("Exactly one of ids or updatedBefore must be given");
+        }
+        if (request.getIds() != null) {
+            if (request.getIds().isEmpty() || request.getIds().stream().anyMatch(Objects::isNull)) {
+                throw new InvalidRequestException("ids must be a non-empty list of user ids");
+            }
+            if (request.getIds().size() > bulkMaxItems) {
+                throw new InvalidRequestException("Bulk requests are limited to " + bulkMaxItems
+                        + " ids; use updatedBefore to select larger sets");
+            }
+        }
+    }
+    
+    // Bulk JPQL bypasses @UpdateTimestamp; match its column precision so ETags and change
+    // cursors stay stable
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+    
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+    
+    private static List<Long> idsOf(List<UserKeyProjection> keys) {
+        return keys.stream().map(UserKeyProjection::id).toList();
+    }
+    
+    private record ChunkOutcome(int matched, int affected) {}
+    
+    // Where a bulk operation finds the keys of its chunks: live users or the archive
+    private interface UserKeySource {
+        
+        List<UserKeyProjection> byIds(List<Long> ids);
+        
+        List<UserKeyProjection> updatedBefore(LocalDateTime before, long afterId, Limit limit);
+    }
+    
+    private record IndexedUser(int index, UserDto dto) {}
 }